@@ -0,0 +1,62 @@
+package io.github.spartatech.sqljson.benchmark;
+
+import io.github.spartatech.sqljson.PreparedQuery;
+import io.github.spartatech.sqljson.SqlJson;
+import io.github.spartatech.sqljson.vo.JsonResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scans of the us-cities Json, scaled by the number of copies: filter only, projection, distinct and in lists.
+ * Queries are executed both from the SQL, going through the plan cache, and already prepared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CitiesQueryBenchmark {
+
+    @Param({"1", "10"})
+    public int scale;
+
+    @Param({
+            "select city from \".\" where state = 'Texas'",
+            "select city, state from \".\"",
+            "select * from \".\"",
+            "select distinct state from \".\"",
+            "select city from \".\" where state in ('Florida', 'Georgia', 'Ohio', 'Texas', 'Utah')",
+    })
+    public String sql;
+
+    private SqlJson sqlj;
+    private PreparedQuery prepared;
+
+    @Setup
+    public void setup() throws Exception {
+        sqlj = new SqlJson(SyntheticData.cities(scale));
+        prepared = sqlj.prepare(sql);
+    }
+
+    @Benchmark
+    public JsonResultSet query() throws Exception {
+        return sqlj.queryAsJSONObject(sql);
+    }
+
+    @Benchmark
+    public JsonResultSet prepared() throws Exception {
+        return prepared.executeQuery();
+    }
+}
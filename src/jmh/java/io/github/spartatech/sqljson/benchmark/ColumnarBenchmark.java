@@ -0,0 +1,63 @@
+package io.github.spartatech.sqljson.benchmark;
+
+import io.github.spartatech.sqljson.SqlJson;
+import io.github.spartatech.sqljson.SqlJsonConfigurer;
+import io.github.spartatech.sqljson.vo.JsonResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Where clause evaluated element by element against the same where clause evaluated over the columnar storage.
+ * Both instances are queried repeatedly, as the columnar storage is meant for.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({
+            "select id from readings where time between 1600100000 and 1600200000",
+            "select id from readings where sensor in ('s1', 's7') and value > 90.0",
+            "select id from readings where status = 'ERROR' or value < 1.0",
+    })
+    public String sql;
+
+    private SqlJson rowByRow;
+    private SqlJson columnar;
+
+    @Setup
+    public void setup() throws Exception {
+        final String json = SyntheticData.readings(rows);
+        rowByRow = new SqlJson(json);
+        columnar = new SqlJson(json, SqlJsonConfigurer.instance().columnarStorage());
+        // vectors are built by the first query, not measured
+        columnar.queryAsJSONObject(sql);
+    }
+
+    @Benchmark
+    public JsonResultSet rowByRow() throws Exception {
+        return rowByRow.queryAsJSONObject(sql);
+    }
+
+    @Benchmark
+    public JsonResultSet columnar() throws Exception {
+        return columnar.queryAsJSONObject(sql);
+    }
+}
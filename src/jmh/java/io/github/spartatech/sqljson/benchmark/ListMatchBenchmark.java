@@ -0,0 +1,51 @@
+package io.github.spartatech.sqljson.benchmark;
+
+import io.github.spartatech.sqljson.SqlJson;
+import io.github.spartatech.sqljson.vo.JsonResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filters with matchAny and matchAll over the list of tags of each event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListMatchBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({
+            "select id from events where matchAny(tags.name) = 't3'",
+            "select id from events where matchAll(tags.weight) > 2",
+            "select id from events where matchAny(tags.name) in ('t1', 't2') and matchAll(tags.weight) >= 5",
+    })
+    public String sql;
+
+    private SqlJson sqlj;
+
+    @Setup
+    public void setup() throws Exception {
+        sqlj = new SqlJson(SyntheticData.events(rows));
+    }
+
+    @Benchmark
+    public JsonResultSet query() throws Exception {
+        return sqlj.queryAsJSONObject(sql);
+    }
+}
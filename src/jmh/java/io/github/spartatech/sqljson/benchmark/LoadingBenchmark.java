@@ -0,0 +1,52 @@
+package io.github.spartatech.sqljson.benchmark;
+
+import io.github.spartatech.sqljson.SqlJson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the Json into the tree queried by SqlJson, from text and from bytes,
+ * over the us-cities Json scaled by the number of copies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadingBenchmark {
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private String json;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws Exception {
+        json = SyntheticData.cities(scale);
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public SqlJson fromString() throws Exception {
+        return new SqlJson(json);
+    }
+
+    @Benchmark
+    public SqlJson fromBytes() throws Exception {
+        return new SqlJson(bytes, 0, bytes.length);
+    }
+}
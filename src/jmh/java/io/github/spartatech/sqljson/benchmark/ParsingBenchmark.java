@@ -0,0 +1,49 @@
+package io.github.spartatech.sqljson.benchmark;
+
+import io.github.spartatech.sqljson.jsonprocessing.QueryPlan;
+import io.github.spartatech.sqljson.sqlparse.SqlParser;
+import io.github.spartatech.sqljson.vo.JsonQueryClause;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing the SQL, and compiling the parsed query into the plan executed against the tables.
+ * Queries not found in the plan cache pay for both on every execution.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingBenchmark {
+
+    @Param({
+            "select city from \".\" where state = 'Texas'",
+            "select distinct state from \".\" where city in ('Springfield', 'Franklin', 'Clinton') order by state",
+            "select state, count(*) from \".\" where city != 'Springfield' group by state having count(*) > 100 order by 2 desc limit 5",
+            "select id from events where matchAny(tags.name) = 't3' and day = {d '2020-03-01'}",
+    })
+    public String sql;
+
+    @Benchmark
+    public JsonQueryClause parse() throws Exception {
+        return new SqlParser(sql).parseQuery();
+    }
+
+    @Benchmark
+    public QueryPlan plan() throws Exception {
+        return QueryPlan.of(new SqlParser(sql).parseQuery());
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.spartatech.sqljson.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Generates Json documents for the benchmarks, with a fixed seed so every run queries the same data.
+ */
+final class SyntheticData {
+
+    private static final String[] STATUSES = {"OK", "WARNING", "ERROR"};
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+    private SyntheticData() {
+
+    }
+
+    /**
+     * Sensor readings, under table {@code readings}: an integer id and time, a text sensor and status,
+     * and a decimal value.
+     *
+     * @param rows number of readings
+     * @return json
+     */
+    static String readings(int rows) {
+        final Random random = new Random(42);
+        final StringBuilder json = new StringBuilder(rows * 100).append("{\"readings\":[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                    .append(",\"sensor\":\"s").append(random.nextInt(10)).append('"')
+                    .append(",\"time\":").append(1600000000L + i * 10L + random.nextInt(10))
+                    .append(",\"value\":").append(Math.round(random.nextDouble() * 10000) / 100.0)
+                    .append(",\"status\":\"").append(STATUSES[random.nextInt(STATUSES.length)]).append('"')
+                    .append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * The us-cities test Json, a root array of cities with a text city and state, repeated to scale it.
+     * Copies after the first one get the copy number appended to the city, so they are distinct elements.
+     *
+     * @param scale number of copies of the cities
+     * @return json
+     * @throws IOException in case the test Json cannot be read
+     */
+    static String cities(int scale) throws IOException {
+        final ObjectMapper mapper = new ObjectMapper();
+        final JsonNode cities;
+        try (InputStream input = SyntheticData.class.getClassLoader().getResourceAsStream("test-json/us-cities.json")) {
+            cities = mapper.readTree(input);
+        }
+        final ArrayNode result = mapper.createArrayNode();
+        for (int copy = 0; copy < scale; copy++) {
+            for (JsonNode city : cities) {
+                final JsonNode element = city.deepCopy();
+                if (copy > 0) {
+                    ((ObjectNode) element).put("city", city.get("city").asText() + " " + copy);
+                }
+                result.add(element);
+            }
+        }
+        return mapper.writeValueAsString(result);
+    }
+
+    /**
+     * Events, under table {@code events}: an integer id, a date {@code day}, a date time {@code at},
+     * and a list of {@code tags}, each with a text name and an integer weight.
+     *
+     * @param rows number of events
+     * @return json
+     */
+    static String events(int rows) {
+        final Random random = new Random(42);
+        final StringBuilder json = new StringBuilder(rows * 200).append("{\"events\":[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            final LocalDate day = FIRST_DAY.plusDays(random.nextInt(366));
+            json.append("{\"id\":").append(i)
+                    .append(",\"day\":\"").append(day).append('"')
+                    .append(",\"at\":\"").append(day.atTime(random.nextInt(24), random.nextInt(60), random.nextInt(60))).append('"')
+                    .append(",\"tags\":[");
+            final int tags = 1 + random.nextInt(4);
+            for (int t = 0; t < tags; t++) {
+                if (t > 0) {
+                    json.append(',');
+                }
+                json.append("{\"name\":\"t").append(random.nextInt(10)).append('"')
+                        .append(",\"weight\":").append(random.nextInt(10)).append('}');
+            }
+            json.append("]}");
+        }
+        return json.append("]}").toString();
+    }
+}
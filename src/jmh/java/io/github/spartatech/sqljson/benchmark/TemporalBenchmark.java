@@ -0,0 +1,52 @@
+package io.github.spartatech.sqljson.benchmark;
+
+import io.github.spartatech.sqljson.SqlJson;
+import io.github.spartatech.sqljson.vo.JsonResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dates and date times stored as text: compared against date and timestamp literals, ordered and aggregated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemporalBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({
+            "select id from events where day = {d '2020-07-04'}",
+            "select id from events where at != {ts '2020-12-01 12:00:00'}",
+            "select id, at from events order by at desc limit 10",
+            "select min(day), max(at) from events",
+    })
+    public String sql;
+
+    private SqlJson sqlj;
+
+    @Setup
+    public void setup() throws Exception {
+        sqlj = new SqlJson(SyntheticData.events(rows));
+    }
+
+    @Benchmark
+    public JsonResultSet query() throws Exception {
+        return sqlj.queryAsJSONObject(sql);
+    }
+}
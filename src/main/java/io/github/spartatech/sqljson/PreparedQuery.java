@@ -0,0 +1,48 @@
+package io.github.spartatech.sqljson;
+
+import io.github.spartatech.sqljson.jsonprocessing.JsonProcessor;
+import io.github.spartatech.sqljson.jsonprocessing.QueryPlan;
+import io.github.spartatech.sqljson.jsonprocessing.TableSource;
+import io.github.spartatech.sqljson.vo.JsonResultSet;
+
+/**
+ * Query already parsed, bound to the Json it was prepared for.
+ * Can be executed as many times as needed, including concurrently from multiple threads.
+ */
+public class PreparedQuery {
+
+    private final TableSource source;
+    private final QueryPlan plan;
+    private final SqlJsonConfig config;
+
+    PreparedQuery(TableSource source, QueryPlan plan, SqlJsonConfig config) {
+        this.source = source;
+        this.plan = plan;
+        this.config = config;
+    }
+
+    /**
+     * Executes the query.
+     *
+     * @return results found
+     * @throws Exception in case of any failure
+     */
+    public JsonResultSet executeQuery() throws Exception {
+        return new JsonProcessor(source, plan, config).process();
+    }
+
+    /**
+     * Executes the query lazily, returning a forward-only result set.
+     * The result set must be closed in case it's not iterated until the end.
+     *
+     * @return forward-only result set
+     * @throws Exception in case of any failure
+     */
+    public JsonResultSet executeQueryAsCursor() throws Exception {
+        return new JsonProcessor(source, plan, config).processLazily();
+    }
+
+    public String getSql() {
+        return plan.getSql();
+    }
+}
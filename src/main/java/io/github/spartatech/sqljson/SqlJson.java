@@ -1,57 +1,386 @@
 package io.github.spartatech.sqljson;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+import io.github.spartatech.sqljson.jsonprocessing.FileSetTableSource;
+import io.github.spartatech.sqljson.jsonprocessing.JsonLinesTableSource;
 import io.github.spartatech.sqljson.jsonprocessing.JsonProcessor;
-import io.github.spartatech.sqljson.sqlparse.SqlParser;
-import io.github.spartatech.sqljson.vo.JsonQueryClause;
+import io.github.spartatech.sqljson.jsonprocessing.JsonTreeTableSource;
+import io.github.spartatech.sqljson.jsonprocessing.QueryPlan;
+import io.github.spartatech.sqljson.jsonprocessing.TableIndexes;
+import io.github.spartatech.sqljson.jsonprocessing.TableSource;
+import io.github.spartatech.sqljson.util.MappedInputStream;
 import io.github.spartatech.sqljson.vo.JsonResultSet;
+import io.github.spartatech.sqljson.vo.ResultRow;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
 
+/**
+ * Queries a Json loaded in memory.
+ * Thread-safe: the Json is parsed once and never modified, and every query keeps its execution state,
+ * such as the rows found and the position of the result set, to itself. One instance can be queried
+ * from any number of threads at once, including while indexes are being created.
+ * Result sets are not shared, each one must be read by one thread at a time.
+ */
 public class SqlJson {
 
-    private final JsonNode json;
     private final SqlJsonConfig config;
+    private final TableIndexes indexes;
+    private final TableSource source;
 
     public SqlJson(String json) throws IOException {
-        this.json = new ObjectMapper().readTree(new ByteArrayInputStream(json.getBytes()));
-        this.config = SqlJsonConfigurer.instance().toConfig();
+        this(json, SqlJsonConfigurer.instance());
     }
 
     public SqlJson(InputStream json) throws IOException {
-        this.json = new ObjectMapper().readTree(json);
-        this.config = SqlJsonConfigurer.instance().toConfig();
+        this(json, SqlJsonConfigurer.instance());
     }
 
     public SqlJson(File json) throws IOException {
-        this.json = new ObjectMapper().readTree(json);
-        this.config = SqlJsonConfigurer.instance().toConfig();
+        this(json, SqlJsonConfigurer.instance());
     }
 
-    public SqlJson(String json, SqlJsonConfigurer config) throws IOException {
-        this.json = new ObjectMapper().readTree(new ByteArrayInputStream(json.getBytes()));
-        this.config = config.toConfig();
+    /**
+     * Loads the Json file, reading it through memory maps.
+     *
+     * @param json file with the Json
+     * @throws IOException in case the file cannot be read or parsed
+     */
+    public SqlJson(Path json) throws IOException {
+        this(json, SqlJsonConfigurer.instance());
+    }
+
+    /**
+     * Queries a Json already parsed, the node is used as is, without being copied.
+     * The node must not be modified while this instance is in use.
+     *
+     * @param json parsed Json
+     */
+    public SqlJson(JsonNode json) {
+        this(json, SqlJsonConfigurer.instance());
+    }
 
+    /**
+     * Parses the Json from a slice of the array, without copying it.
+     *
+     * @param json bytes with the Json, in any encoding Jackson detects
+     * @param offset first byte of the Json
+     * @param length number of bytes of the Json
+     * @throws IOException in case the Json cannot be parsed
+     */
+    public SqlJson(byte[] json, int offset, int length) throws IOException {
+        this(json, offset, length, SqlJsonConfigurer.instance());
+    }
+
+    public SqlJson(String json, SqlJsonConfigurer config) throws IOException {
+        this(config.toConfig(), reader -> reader.readTree(json));
     }
 
     public SqlJson(InputStream json, SqlJsonConfigurer config) throws IOException {
-        this.json = new ObjectMapper().readTree(json);
-        this.config = config.toConfig();
+        this(config.toConfig(), reader -> reader.readTree(json));
     }
 
     public SqlJson(File json, SqlJsonConfigurer config) throws IOException {
-        this.json = new ObjectMapper().readTree(json);
-        this.config = config.toConfig();
+        this(json.toPath(), config);
+    }
+
+    /**
+     * Loads the Json file, reading it through memory maps.
+     *
+     * @param json file with the Json
+     * @param config configurations
+     * @throws IOException in case the file cannot be read or parsed
+     */
+    public SqlJson(Path json, SqlJsonConfigurer config) throws IOException {
+        this(config.toConfig(), reader -> {
+            try (InputStream input = MappedInputStream.open(json)) {
+                return reader.readTree(input);
+            }
+        });
+    }
+
+    /**
+     * Queries a Json already parsed, the node is used as is, without being copied.
+     * The node must not be modified while this instance is in use.
+     *
+     * @param json parsed Json
+     * @param config configurations
+     */
+    public SqlJson(JsonNode json, SqlJsonConfigurer config) {
+        this(json, config.toConfig());
+    }
+
+    /**
+     * Parses the Json from a slice of the array, without copying it.
+     *
+     * @param json bytes with the Json, in any encoding Jackson detects
+     * @param offset first byte of the Json
+     * @param length number of bytes of the Json
+     * @param config configurations
+     * @throws IOException in case the Json cannot be parsed
+     */
+    public SqlJson(byte[] json, int offset, int length, SqlJsonConfigurer config) throws IOException {
+        this(config.toConfig(), reader -> reader.readTree(json, offset, length));
     }
 
+    private SqlJson(SqlJsonConfig config, TreeReader treeReader) throws IOException {
+        this(treeReader.read(config.getReader()), config);
+    }
+
+    private SqlJson(JsonNode json, SqlJsonConfig config) {
+        this.config = config;
+        this.indexes = new TableIndexes(json, config.isColumnarStorage());
+        this.source = new JsonTreeTableSource(json, indexes);
+    }
+
+    /**
+     * Parses the Json with the configured reader.
+     */
+    @FunctionalInterface
+    private interface TreeReader {
+        JsonNode read(ObjectReader reader) throws IOException;
+    }
+
+    /**
+     * Creates a SqlJson that reads the Json as a stream, instead of loading it in memory.
+     * The stream can only be queried once.
+     *
+     * @param json stream with the Json
+     * @return StreamingSqlJson
+     */
+    public static StreamingSqlJson streaming(InputStream json) {
+        return new StreamingSqlJson(json, SqlJsonConfigurer.instance().toConfig());
+    }
+
+    /**
+     * Creates a SqlJson that reads the Json as a stream, instead of loading it in memory.
+     * The stream can only be queried once.
+     *
+     * @param json stream with the Json
+     * @param config configurations
+     * @return StreamingSqlJson
+     */
+    public static StreamingSqlJson streaming(InputStream json, SqlJsonConfigurer config) {
+        return new StreamingSqlJson(json, config.toConfig());
+    }
+
+    /**
+     * Creates a SqlJson that reads the Json file as a stream, instead of loading it in memory.
+     * The file is read again on every query, through memory maps.
+     *
+     * @param json file with the Json
+     * @return StreamingSqlJson
+     */
+    public static StreamingSqlJson streaming(Path json) {
+        return new StreamingSqlJson(json, SqlJsonConfigurer.instance().toConfig());
+    }
+
+    /**
+     * Creates a SqlJson that reads the Json file as a stream, instead of loading it in memory.
+     * The file is read again on every query, through memory maps.
+     *
+     * @param json file with the Json
+     * @param config configurations
+     * @return StreamingSqlJson
+     */
+    public static StreamingSqlJson streaming(Path json, SqlJsonConfigurer config) {
+        return new StreamingSqlJson(json, config.toConfig());
+    }
+
+    /**
+     * Creates a SqlJson over a JSON Lines file, where every line is a Json value.
+     * With table {@code "."} every line is an element of the table, otherwise the table is looked up in every line.
+     * The file is read again on every query, through memory maps.
+     *
+     * @param json JSON Lines file
+     * @return StreamingSqlJson
+     */
+    public static StreamingSqlJson jsonLines(Path json) {
+        return new StreamingSqlJson(reader -> new JsonLinesTableSource(reader, json), SqlJsonConfigurer.instance().toConfig());
+    }
+
+    /**
+     * Creates a SqlJson over a JSON Lines file, where every line is a Json value.
+     * With table {@code "."} every line is an element of the table, otherwise the table is looked up in every line.
+     * With {@link SqlJsonConfigurer#parallelExecution(int, int)} the file is split at line breaks
+     * into chunks that are parsed and filtered concurrently.
+     *
+     * @param json JSON Lines file
+     * @param config configurations
+     * @return StreamingSqlJson
+     */
+    public static StreamingSqlJson jsonLines(Path json, SqlJsonConfigurer config) {
+        return new StreamingSqlJson(reader -> new JsonLinesTableSource(reader, json), config.toConfig());
+    }
+
+    /**
+     * Creates a SqlJson over all files of a directory whose names match the glob, such as {@code *.json}.
+     * The table is the union of the elements of the table in every file, in the order of the file names.
+     * Files are read as streams, and listed again on every query.
+     *
+     * @param directory directory with the files
+     * @param glob pattern of the file names
+     * @return StreamingSqlJson
+     */
+    public static StreamingSqlJson ofFiles(Path directory, String glob) {
+        return new StreamingSqlJson(reader -> new FileSetTableSource(reader, directory, glob), SqlJsonConfigurer.instance().toConfig());
+    }
+
+    /**
+     * Creates a SqlJson over all files of a directory whose names match the glob, such as {@code *.json}.
+     * The table is the union of the elements of the table in every file, in the order of the file names.
+     * With {@link SqlJsonConfigurer#parallelExecution(int, int)} files are parsed and filtered concurrently
+     * on the configured pool, at most as many at once as the configured parallelism, the next file is read
+     * as each one is merged. Distinct, order by and limit still apply to the whole table; ordered queries
+     * that are limited keep only the top rows of each file, so memory depends on the limit instead of the table.
+     *
+     * @param directory directory with the files
+     * @param glob pattern of the file names
+     * @param config configurations
+     * @return StreamingSqlJson
+     */
+    public static StreamingSqlJson ofFiles(Path directory, String glob, SqlJsonConfigurer config) {
+        return new StreamingSqlJson(reader -> new FileSetTableSource(reader, directory, glob), config.toConfig());
+    }
 
     public JsonResultSet queryAsJSONObject(String sql) throws Exception {
-        final JsonQueryClause query = new SqlParser(sql).parseQuery();
-        return new JsonProcessor(json, query, config).process();
+        return new JsonProcessor(source, plan(sql, config), config).process();
+    }
+
+    /**
+     * Executes the query on the configured executor, by default on a virtual thread on JDK 21 and later.
+     * Failures complete the future exceptionally, with the same exception {@link #queryAsJSONObject(String)} throws.
+     *
+     * @param sql query
+     * @return future completed with the results found
+     */
+    public CompletableFuture<JsonResultSet> queryAsync(String sql) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return queryAsJSONObject(sql);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, config.getAsyncExecutor());
+    }
+
+    /**
+     * Publishes the rows of the query as they pass filter and projection, as the subscriber requests them,
+     * so a slow subscriber throttles the scan. Cancelling the subscription stops the scan.
+     * Each subscription executes the query again, with signals delivered on the configured async executor.
+     * Queries with order by or distinct keep the rows they need to sort or compare, any other query
+     * holds only the rows requested and not yet delivered.
+     *
+     * @param sql query
+     * @return publisher of the rows
+     * @throws SQLException in case the query is invalid
+     */
+    public Flow.Publisher<ResultRow> queryAsPublisher(String sql) throws SQLException {
+        return new JsonProcessor(source, plan(sql, config), config).publish(config.getAsyncExecutor());
+    }
+
+    /**
+     * Executes the query lazily, returning a stream of the rows.
+     * Rows are filtered and projected only as the stream is consumed, and short-circuiting operations such as
+     * {@code findFirst} stop reading the table. Queries without aggregation, ordering, distinct, limit or star selectors
+     * split the table, so parallel streams filter and project its parts concurrently.
+     * The stream must be closed in case it's not consumed until the end.
+     *
+     * @param sql query
+     * @return sequential stream of the rows
+     * @throws Exception in case of any failure
+     */
+    public Stream<ResultRow> queryAsStream(String sql) throws Exception {
+        return new JsonProcessor(source, plan(sql, config), config).stream();
+    }
+
+    /**
+     * Executes the query lazily, returning a forward-only result set.
+     * Rows are filtered and projected only as the result set is iterated, so reading only
+     * the first rows does not process the whole table.
+     * The result set must be closed in case it's not iterated until the end.
+     *
+     * @param sql query
+     * @return forward-only result set
+     * @throws Exception in case of any failure
+     */
+    public JsonResultSet queryAsCursor(String sql) throws Exception {
+        return new JsonProcessor(source, plan(sql, config), config).processLazily();
+    }
+
+    /**
+     * Prepares the query to be executed multiple times against this Json.
+     * The returned query is thread-safe and does not parse the SQL again on every execution.
+     *
+     * @param sql query to be prepared
+     * @return PreparedQuery
+     * @throws SQLException in case the query is invalid
+     */
+    public PreparedQuery prepare(String sql) throws SQLException {
+        return new PreparedQuery(source, plan(sql, config), config);
+    }
+
+    /**
+     * Creates a hash index on a column of a table, in case it does not exist yet.
+     * Queries filtering the column by equality or IN against literals, such as
+     * {@code where state = 'Florida'}, read only the elements found in the index instead of the whole table.
+     * The index is kept for the life of this instance, and it's safe to create it while queries are running.
+     *
+     * @param table table name, as in the from clause
+     * @param column column name, as in the where clause
+     * @throws SQLException in case the table cannot be found
+     */
+    public void createIndex(String table, String column) throws SQLException {
+        try {
+            indexes.createHashIndex(table, column);
+        } catch (ExceptionWrapper e) {
+            throw toSqlException(e);
+        }
+    }
+
+    /**
+     * Creates a sorted index on a numeric column of a table, in case it does not exist yet.
+     * Queries with range conditions on the column against literals, such as
+     * {@code where time between 1600000000 and 1700000000}, read only the elements in the range, found by binary search.
+     * Queries ordered only by the column read the elements in the order of the index, instead of sorting them.
+     *
+     * @param table table name, as in the from clause
+     * @param column column name, as in the where clause
+     * @throws SQLException in case the table cannot be found, or the column has values that are not numbers
+     */
+    public void createSortedIndex(String table, String column) throws SQLException {
+        try {
+            indexes.createSortedIndex(table, column);
+        } catch (ExceptionWrapper e) {
+            throw toSqlException(e);
+        }
+    }
+
+    private static SQLException toSqlException(ExceptionWrapper e) {
+        return e.unwrap() instanceof SQLException ? (SQLException) e.unwrap() : new SQLException(e.unwrap());
+    }
 
+    /**
+     * Retrieves the plan for the query, from the cache when it's enabled.
+     *
+     * @param sql query
+     * @param config configurations
+     * @return QueryPlan
+     * @throws SQLException in case the query is invalid
+     */
+    static QueryPlan plan(String sql, SqlJsonConfig config) throws SQLException {
+        if (config.getPlanCache() == null) {
+            return QueryPlan.parse(sql);
+        }
+        return config.getPlanCache().get(sql);
     }
 }
@@ -1,13 +1,97 @@
 package io.github.spartatech.sqljson;
 
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.spartatech.sqljson.jsonprocessing.QueryPlanCache;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 public class SqlJsonConfig {
     private final boolean strictResultRowExistence;
+    private final QueryPlanCache planCache;
+    private final int parallelism;
+    private final int parallelThreshold;
+    private final ForkJoinPool parallelExecutor;
+    private final boolean columnarStorage;
+    private final ObjectReader reader;
+    private final Executor asyncExecutor;
 
-    protected SqlJsonConfig(boolean strictResultRowExistence) {
+    protected SqlJsonConfig(boolean strictResultRowExistence, QueryPlanCache planCache,
+                            int parallelism, int parallelThreshold, ForkJoinPool parallelExecutor,
+                            boolean columnarStorage, ObjectReader reader, Executor asyncExecutor) {
         this.strictResultRowExistence = strictResultRowExistence;
+        this.planCache = planCache;
+        this.parallelism = parallelism;
+        this.parallelThreshold = parallelThreshold;
+        this.parallelExecutor = parallelExecutor;
+        this.columnarStorage = columnarStorage;
+        this.reader = reader;
+        this.asyncExecutor = asyncExecutor;
     }
 
     public boolean isStrictResultRowExistence() {
         return strictResultRowExistence;
     }
+
+    /**
+     * Cache used to keep parsed queries.
+     *
+     * @return cache, or null in case caching is disabled
+     */
+    public QueryPlanCache getPlanCache() {
+        return planCache;
+    }
+
+    /**
+     * Whether large tables are scanned in parallel.
+     *
+     * @return true -> parallel execution enabled
+     */
+    public boolean isParallelExecution() {
+        return parallelism > 1;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Minimum number of elements in the table for it to be scanned in parallel.
+     *
+     * @return threshold
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public ForkJoinPool getParallelExecutor() {
+        return parallelExecutor;
+    }
+
+    /**
+     * Whether where clauses are evaluated over columnar copies of the tables.
+     *
+     * @return true -> columnar storage enabled
+     */
+    public boolean isColumnarStorage() {
+        return columnarStorage;
+    }
+
+    /**
+     * Reader used to parse the Json.
+     *
+     * @return reader
+     */
+    public ObjectReader getReader() {
+        return reader;
+    }
+
+    /**
+     * Executor running asynchronous queries.
+     *
+     * @return executor
+     */
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
 }
@@ -1,7 +1,25 @@
 package io.github.spartatech.sqljson;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.spartatech.sqljson.jsonprocessing.QueryPlanCache;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
 public class SqlJsonConfigurer {
+    private static final ObjectReader SHARED_READER = new ObjectMapper().reader();
+    private static final Executor SHARED_ASYNC_EXECUTOR = defaultAsyncExecutor();
+
     private boolean strictResultRowExistence = false;
+    private QueryPlanCache planCache = null;
+    private int parallelism = 1;
+    private int parallelThreshold = 0;
+    private ForkJoinPool parallelExecutor = ForkJoinPool.commonPool();
+    private boolean columnarStorage = false;
+    private ObjectReader reader = SHARED_READER;
+    private Executor asyncExecutor = SHARED_ASYNC_EXECUTOR;
 
     private SqlJsonConfigurer() {
 
@@ -16,7 +34,108 @@ public class SqlJsonConfigurer {
         return this;
     }
 
+    /**
+     * Keeps parsed queries in the given cache, so queries executed again are not parsed again.
+     * No cache is used by default. The cache can be dedicated to an instance, or shared
+     * by all instances with {@link QueryPlanCache#shared()}.
+     *
+     * @param planCache cache to be used
+     * @return this configurer
+     */
+    public SqlJsonConfigurer planCache(QueryPlanCache planCache) {
+        this.planCache = planCache;
+        return this;
+    }
+
+    /**
+     * Disables the cache of parsed queries, every query is parsed when executed. This is the default.
+     *
+     * @return this configurer
+     */
+    public SqlJsonConfigurer disablePlanCache() {
+        this.planCache = null;
+        return this;
+    }
+
+    /**
+     * Enables scanning large tables in parallel. The table is split in chunks, which are filtered
+     * and projected concurrently, results keep the order of the table.
+     * Only applies when all results are retrieved at once, cursors are always sequential.
+     *
+     * @param parallelism number of chunks processed concurrently
+     * @param minimumSize minimum number of elements in the table for it to be scanned in parallel
+     * @return this configurer
+     */
+    public SqlJsonConfigurer parallelExecution(int parallelism, int minimumSize) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, got " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.parallelThreshold = minimumSize;
+        return this;
+    }
+
+    /**
+     * Pool used to scan tables in parallel, defaults to {@link ForkJoinPool#commonPool()}.
+     *
+     * @param executor pool to be used
+     * @return this configurer
+     */
+    public SqlJsonConfigurer parallelExecutor(ForkJoinPool executor) {
+        this.parallelExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Keeps a columnar copy of the tables queried, where the where clause is evaluated over
+     * column vectors instead of element by element. Tables are copied the first time they are filtered,
+     * and vectors are built for the columns as the where clauses use them.
+     * Trades memory for faster repeated queries, only applies to Json loaded in memory.
+     *
+     * @return this configurer
+     */
+    public SqlJsonConfigurer columnarStorage() {
+        this.columnarStorage = true;
+        return this;
+    }
+
+    /**
+     * Uses the given reader to parse the Json, instead of the one shared by all instances.
+     * Allows reusing a mapper already configured, such as {@code mapper.reader()}.
+     *
+     * @param reader reader to be used
+     * @return this configurer
+     */
+    public SqlJsonConfigurer reader(ObjectReader reader) {
+        this.reader = reader;
+        return this;
+    }
+
+    /**
+     * Executor running the queries of {@code queryAsync}. Defaults to a virtual thread per query on JDK 21 and later,
+     * and to {@link ForkJoinPool#commonPool()} on older JDKs.
+     *
+     * @param executor executor to be used
+     * @return this configurer
+     */
+    public SqlJsonConfigurer asyncExecutor(Executor executor) {
+        this.asyncExecutor = executor;
+        return this;
+    }
+
     protected SqlJsonConfig toConfig() {
-        return new SqlJsonConfig(strictResultRowExistence);
+        return new SqlJsonConfig(strictResultRowExistence, planCache, parallelism, parallelThreshold, parallelExecutor,
+                columnarStorage, reader, asyncExecutor);
+    }
+
+    /**
+     * Virtual threads are looked up by reflection, as the library targets Java 11.
+     */
+    private static Executor defaultAsyncExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return ForkJoinPool.commonPool();
+        }
     }
 }
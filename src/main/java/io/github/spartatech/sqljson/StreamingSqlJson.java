@@ -0,0 +1,102 @@
+package io.github.spartatech.sqljson;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.spartatech.sqljson.jsonprocessing.JsonProcessor;
+import io.github.spartatech.sqljson.jsonprocessing.JsonStreamTableSource;
+import io.github.spartatech.sqljson.jsonprocessing.TableSource;
+import io.github.spartatech.sqljson.util.MappedInputStream;
+import io.github.spartatech.sqljson.vo.JsonResultSet;
+import io.github.spartatech.sqljson.vo.ResultRow;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Queries a Json reading it as a stream of tokens, the whole Json is never loaded in memory.
+ * Only the elements of the table are materialized, one at a time, so memory is bounded by
+ * the size of the results instead of the size of the Json.
+ *
+ * Created through {@link SqlJson#streaming(InputStream)}, {@link SqlJson#streaming(Path)},
+ * {@link SqlJson#jsonLines(Path)} or {@link SqlJson#ofFiles(Path, String)}.
+ */
+public class StreamingSqlJson {
+
+    private final TableSource source;
+    private final SqlJsonConfig config;
+
+    StreamingSqlJson(InputStream json, SqlJsonConfig config) {
+        final AtomicBoolean consumed = new AtomicBoolean(false);
+        final ObjectReader reader = config.getReader();
+        this.source = new JsonStreamTableSource(reader, () -> {
+            if (consumed.getAndSet(true)) {
+                throw new IllegalStateException("Json stream was already queried, a stream can only be queried once");
+            }
+            return reader.getFactory().createParser(json);
+        });
+        this.config = config;
+    }
+
+    StreamingSqlJson(Path json, SqlJsonConfig config) {
+        final ObjectReader reader = config.getReader();
+        this.source = new JsonStreamTableSource(reader, () -> reader.getFactory().createParser(MappedInputStream.open(json)));
+        this.config = config;
+    }
+
+    StreamingSqlJson(Function<ObjectReader, TableSource> source, SqlJsonConfig config) {
+        this.source = source.apply(config.getReader());
+        this.config = config;
+    }
+
+    public JsonResultSet queryAsJSONObject(String sql) throws Exception {
+        return new JsonProcessor(source, SqlJson.plan(sql, config), config).process();
+    }
+
+    /**
+     * Publishes the rows of the query as they pass filter and projection, as the subscriber requests them,
+     * so a slow subscriber throttles the scan. Cancelling the subscription stops the scan.
+     * Each subscription executes the query again, with signals delivered on the configured async executor.
+     * Queries with order by or distinct keep the rows they need to sort or compare, any other query
+     * holds only the rows requested and not yet delivered.
+     *
+     * @param sql query
+     * @return publisher of the rows
+     * @throws SQLException in case the query is invalid
+     */
+    public Flow.Publisher<ResultRow> queryAsPublisher(String sql) throws SQLException {
+        return new JsonProcessor(source, SqlJson.plan(sql, config), config).publish(config.getAsyncExecutor());
+    }
+
+    /**
+     * Executes the query lazily, returning a stream of the rows.
+     * Rows are filtered and projected only as the stream is consumed, and short-circuiting operations such as
+     * {@code findFirst} stop reading the table. Queries without aggregation, ordering, distinct, limit or star selectors
+     * split the table, so parallel streams filter and project its parts concurrently.
+     * The stream must be closed in case it's not consumed until the end.
+     *
+     * @param sql query
+     * @return sequential stream of the rows
+     * @throws Exception in case of any failure
+     */
+    public Stream<ResultRow> queryAsStream(String sql) throws Exception {
+        return new JsonProcessor(source, SqlJson.plan(sql, config), config).stream();
+    }
+
+    /**
+     * Executes the query lazily, returning a forward-only result set.
+     * Rows are filtered and projected only as the result set is iterated, so reading only
+     * the first rows does not read the whole Json.
+     * The result set must be closed in case it's not iterated until the end.
+     *
+     * @param sql query
+     * @return forward-only result set
+     * @throws Exception in case of any failure
+     */
+    public JsonResultSet queryAsCursor(String sql) throws Exception {
+        return new JsonProcessor(source, SqlJson.plan(sql, config), config).processLazily();
+    }
+}
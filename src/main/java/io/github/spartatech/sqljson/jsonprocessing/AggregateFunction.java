@@ -0,0 +1,53 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import net.sf.jsqlparser.expression.Function;
+
+import java.util.Locale;
+
+/**
+ * Aggregate functions supported in select, having and order by.
+ */
+enum AggregateFunction {
+    COUNT,
+    SUM,
+    AVG,
+    MIN,
+    MAX;
+
+    /**
+     * Checks whether the function is an aggregate.
+     *
+     * @param function function
+     * @return true if aggregate
+     */
+    static boolean isAggregate(Function function) {
+        return of(function) != null;
+    }
+
+    /**
+     * Aggregate of the function.
+     *
+     * @param function function
+     * @return aggregate, null when the function is not an aggregate
+     */
+    static AggregateFunction of(Function function) {
+        switch (function.getName().toUpperCase(Locale.ROOT)) {
+            case "COUNT": return COUNT;
+            case "SUM": return SUM;
+            case "AVG": return AVG;
+            case "MIN": return MIN;
+            case "MAX": return MAX;
+            default: return null;
+        }
+    }
+
+    /**
+     * Name of the field holding the aggregate value in the elements produced by the aggregation.
+     *
+     * @param function function
+     * @return field name
+     */
+    static String fieldName(Function function) {
+        return function.toString();
+    }
+}
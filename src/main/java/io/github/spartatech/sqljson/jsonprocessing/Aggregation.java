@@ -0,0 +1,488 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+import io.github.spartatech.sqljson.exception.ExpressionNotSupportedException;
+import io.github.spartatech.sqljson.util.ColumnPath;
+import io.github.spartatech.sqljson.util.ColumnTypeHint;
+import io.github.spartatech.sqljson.util.GeneralConverters;
+import io.github.spartatech.sqljson.vo.JsonQueryClause;
+import io.github.spartatech.sqljson.vo.ResultRow;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.SelectExpressionItem;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.temporal.Temporal;
+import java.util.*;
+
+/**
+ * Compiled GROUP BY and aggregate functions of a query.
+ * Elements kept by the where clause are aggregated in a single pass into a hash table of groups,
+ * each group holding one accumulator per aggregate function, with primitive sums and counts.
+ * Each group is then produced as one element: the first element of the group with the aggregate
+ * values added as fields named after the function, so having, projection and ordering
+ * read group columns and aggregates the same way they read columns of the table.
+ */
+final class Aggregation {
+    private static final Logger log = LoggerFactory.getLogger(Aggregation.class);
+
+    private final List<ColumnPath> groupBy;
+    private final List<AggregateSpec> aggregates;
+
+    private Aggregation(List<ColumnPath> groupBy, List<AggregateSpec> aggregates) {
+        this.groupBy = groupBy;
+        this.aggregates = aggregates;
+    }
+
+    /**
+     * Compiles the aggregation of the query.
+     *
+     * @param query parsed query
+     * @param slots allocator of the type hints of the plan
+     * @return aggregation, null when the query does not aggregate
+     */
+    static Aggregation compile(JsonQueryClause query, TypeHints.Slots slots) {
+        final Map<String, Function> functions = new LinkedHashMap<>();
+        final ExpressionVisitorAdapter collector = new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(Function function) {
+                if (AggregateFunction.isAggregate(function)) {
+                    functions.putIfAbsent(AggregateFunction.fieldName(function), function);
+                } else {
+                    super.visit(function);
+                }
+            }
+        };
+        for (SelectItem item : query.getReturningFields()) {
+            if (item instanceof SelectExpressionItem) {
+                ((SelectExpressionItem) item).getExpression().accept(collector);
+            }
+        }
+        if (query.getHaving() != null) {
+            query.getHaving().accept(collector);
+        }
+        if (query.getOrderByElements() != null) {
+            for (OrderByElement element : query.getOrderByElements()) {
+                element.getExpression().accept(collector);
+            }
+        }
+
+        final List<Expression> groupByExpressions = query.getGroupByExpressions() == null
+                ? List.of()
+                : query.getGroupByExpressions();
+        if (functions.isEmpty() && groupByExpressions.isEmpty() && query.getHaving() == null) {
+            return null;
+        }
+
+        final List<ColumnPath> groupBy = new ArrayList<>(groupByExpressions.size());
+        for (Expression expression : groupByExpressions) {
+            if (!(expression instanceof Column)) {
+                throw new ExpressionNotSupportedException("Group by expression (" + expression + ")");
+            }
+            groupBy.add(ColumnPath.of(((Column) expression).getFullyQualifiedName()));
+        }
+
+        final List<AggregateSpec> aggregates = new ArrayList<>(functions.size());
+        functions.forEach((name, function) -> aggregates.add(AggregateSpec.compile(name, function, slots)));
+        return new Aggregation(groupBy, aggregates);
+    }
+
+    /**
+     * Aggregates the elements of the cursor.
+     *
+     * @param elements elements of the table
+     * @param filter where clause
+     * @return cursor over one element for each group
+     */
+    TableCursor aggregate(TableCursor elements, RowFilter filter) {
+        return new AggregatingCursor(elements, filter);
+    }
+
+    /**
+     * Reads all elements on the first access and then iterates over the groups.
+     */
+    private final class AggregatingCursor implements TableCursor {
+        private final TableCursor elements;
+        private final RowFilter filter;
+        private final TypeHints hints = new TypeHints();
+        private Iterator<JsonNode> groups;
+
+        AggregatingCursor(TableCursor elements, RowFilter filter) {
+            this.elements = elements;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (groups == null) {
+                groups = aggregateAll();
+            }
+            return groups.hasNext();
+        }
+
+        @Override
+        public JsonNode next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return groups.next();
+        }
+
+        @Override
+        public void close() throws IOException {
+            elements.close();
+        }
+
+        private Iterator<JsonNode> aggregateAll() {
+            final Map<ResultRow, Group> table = new LinkedHashMap<>();
+            try {
+                while (elements.hasNext()) {
+                    final JsonNode element = elements.next();
+                    if (!filter.test(element, hints)) {
+                        continue;
+                    }
+                    final List<JsonNode> keyColumns = new ArrayList<>(groupBy.size());
+                    for (ColumnPath path : groupBy) {
+                        keyColumns.add(path.resolve(element));
+                    }
+                    final ResultRow key = new ResultRow(keyColumns);
+                    Group group = table.get(key);
+                    if (group == null) {
+                        group = new Group(element);
+                        table.put(key, group);
+                    }
+                    for (int i = 0; i < group.accumulators.length; i++) {
+                        group.accumulators[i].add(aggregates.get(i).argument(element, hints));
+                    }
+                }
+            } catch (SQLException e) {
+                throw ExceptionWrapper.of(e);
+            }
+            if (table.isEmpty() && groupBy.isEmpty()) {
+                // aggregates without group by always produce one row
+                table.put(new ResultRow(List.of()), new Group(null));
+            }
+            log.debug("Aggregated {} groups", table.size());
+            return table.values().stream().map(Group::toElement).iterator();
+        }
+    }
+
+    /**
+     * First element of a group and its accumulators.
+     */
+    private final class Group {
+        final JsonNode first;
+        final Accumulator[] accumulators;
+
+        Group(JsonNode first) {
+            this.first = first;
+            this.accumulators = new Accumulator[aggregates.size()];
+            for (int i = 0; i < accumulators.length; i++) {
+                accumulators[i] = aggregates.get(i).newAccumulator();
+            }
+        }
+
+        JsonNode toElement() {
+            final ObjectNode element = JsonNodeFactory.instance.objectNode();
+            if (first instanceof ObjectNode) {
+                element.setAll((ObjectNode) first);
+            }
+            for (int i = 0; i < accumulators.length; i++) {
+                element.set(aggregates.get(i).name, accumulators[i].result());
+            }
+            return element;
+        }
+    }
+
+    /**
+     * Compiled aggregate function.
+     */
+    private static final class AggregateSpec {
+        final String name;
+        final AggregateFunction function;
+        final boolean distinct;
+        final ColumnPath column;
+        final ValueResolver value;
+
+        private AggregateSpec(String name, AggregateFunction function, boolean distinct, ColumnPath column, ValueResolver value) {
+            this.name = name;
+            this.function = function;
+            this.distinct = distinct;
+            this.column = column;
+            this.value = value;
+        }
+
+        static AggregateSpec compile(String name, Function function, TypeHints.Slots slots) {
+            final AggregateFunction aggregate = AggregateFunction.of(function);
+            if (function.isDistinct() && aggregate != AggregateFunction.COUNT) {
+                throw new ExpressionNotSupportedException("Distinct in function (" + function + ")");
+            }
+            if (function.isAllColumns()) {
+                if (aggregate != AggregateFunction.COUNT) {
+                    throw ExceptionWrapper.of(new SQLException("Function " + function.getName() + " does not accept *"));
+                }
+                return new AggregateSpec(name, aggregate, false, null, null);
+            }
+
+            final int parameters = function.getParameters() == null ? 0 : function.getParameters().getExpressions().size();
+            if (parameters != 1) {
+                throw ExceptionWrapper.of(new SQLException("Invalid number of parameters. " + function.getName() + " expects 1 parameter, but got " + parameters));
+            }
+            final Expression argument = function.getParameters().getExpressions().get(0);
+            if (argument instanceof Column) {
+                return new AggregateSpec(name, aggregate, function.isDistinct(),
+                        ColumnPath.of(((Column) argument).getFullyQualifiedName()), null);
+            }
+            return new AggregateSpec(name, aggregate, function.isDistinct(), null, WhereClauseCompiler.compileValue(argument, slots));
+        }
+
+        /**
+         * Value of the function argument for the element.
+         */
+        JsonNode argument(JsonNode element, TypeHints hints) throws SQLException {
+            if (column != null) {
+                return column.resolve(element);
+            }
+            if (value != null) {
+                return toJsonNode(value.resolve(element, hints));
+            }
+            return null;
+        }
+
+        Accumulator newAccumulator() {
+            switch (function) {
+                case COUNT:
+                    if (column == null && value == null) {
+                        return new CountAll();
+                    }
+                    return distinct ? new CountDistinct() : new Count();
+                case SUM:
+                    return new Sum(name);
+                case AVG:
+                    return new Avg(name);
+                case MIN:
+                    return new MinMax(false);
+                case MAX:
+                    return new MinMax(true);
+                default:
+                    throw new ExpressionNotSupportedException("Function " + name);
+            }
+        }
+
+        private static JsonNode toJsonNode(Object value) {
+            if (value == null) {
+                return NullNode.getInstance();
+            } else if (value instanceof Long) {
+                return JsonNodeFactory.instance.numberNode((Long) value);
+            } else if (value instanceof Double) {
+                return JsonNodeFactory.instance.numberNode((Double) value);
+            }
+            return JsonNodeFactory.instance.textNode(value.toString());
+        }
+    }
+
+    /* Accumulators */
+
+    private static boolean isAbsent(JsonNode value) {
+        return value == null || value.isNull() || value.isMissingNode();
+    }
+
+    private static void requireNumber(String function, JsonNode value) throws SQLException {
+        if (!value.isNumber()) {
+            throw new SQLException("Function " + function + " expects numeric values, got " + value);
+        }
+    }
+
+    private abstract static class Accumulator {
+        abstract void add(JsonNode value) throws SQLException;
+
+        abstract JsonNode result();
+    }
+
+    private static final class CountAll extends Accumulator {
+        private long count;
+
+        @Override
+        void add(JsonNode value) {
+            count++;
+        }
+
+        @Override
+        JsonNode result() {
+            return JsonNodeFactory.instance.numberNode(count);
+        }
+    }
+
+    private static final class Count extends Accumulator {
+        private long count;
+
+        @Override
+        void add(JsonNode value) {
+            if (!isAbsent(value)) {
+                count++;
+            }
+        }
+
+        @Override
+        JsonNode result() {
+            return JsonNodeFactory.instance.numberNode(count);
+        }
+    }
+
+    private static final class CountDistinct extends Accumulator {
+        private final Set<ResultRow> values = new HashSet<>();
+
+        @Override
+        void add(JsonNode value) {
+            if (!isAbsent(value)) {
+                values.add(new ResultRow(List.of(value)));
+            }
+        }
+
+        @Override
+        JsonNode result() {
+            return JsonNodeFactory.instance.numberNode((long) values.size());
+        }
+    }
+
+    /**
+     * Sums integral numbers as long, switching to double on the first floating number or on overflow.
+     */
+    private static final class Sum extends Accumulator {
+        private final String function;
+        private long longSum;
+        private double doubleSum;
+        private boolean floating;
+        private boolean any;
+
+        Sum(String function) {
+            this.function = function;
+        }
+
+        @Override
+        void add(JsonNode value) throws SQLException {
+            if (isAbsent(value)) {
+                return;
+            }
+            requireNumber(function, value);
+            any = true;
+            doubleSum += value.doubleValue();
+            if (!floating) {
+                if (value.isIntegralNumber() && value.canConvertToLong()) {
+                    try {
+                        longSum = Math.addExact(longSum, value.longValue());
+                    } catch (ArithmeticException e) {
+                        floating = true;
+                    }
+                } else {
+                    floating = true;
+                }
+            }
+        }
+
+        @Override
+        JsonNode result() {
+            if (!any) {
+                return NullNode.getInstance();
+            }
+            return floating
+                    ? JsonNodeFactory.instance.numberNode(doubleSum)
+                    : JsonNodeFactory.instance.numberNode(longSum);
+        }
+    }
+
+    private static final class Avg extends Accumulator {
+        private final String function;
+        private double sum;
+        private long count;
+
+        Avg(String function) {
+            this.function = function;
+        }
+
+        @Override
+        void add(JsonNode value) throws SQLException {
+            if (isAbsent(value)) {
+                return;
+            }
+            requireNumber(function, value);
+            sum += value.doubleValue();
+            count++;
+        }
+
+        @Override
+        JsonNode result() {
+            return count == 0 ? NullNode.getInstance() : JsonNodeFactory.instance.numberNode(sum / count);
+        }
+    }
+
+    /**
+     * Keeps the lowest, or highest, value. Numbers are compared as primitives,
+     * other values as in order by.
+     */
+    private static final class MinMax extends Accumulator {
+        private final boolean max;
+        private final ColumnTypeHint hint = new ColumnTypeHint();
+        private JsonNode best;
+        private Object bestNative;
+
+        MinMax(boolean max) {
+            this.max = max;
+        }
+
+        @Override
+        void add(JsonNode value) {
+            if (isAbsent(value)) {
+                return;
+            }
+            if (best == null) {
+                best = value;
+                bestNative = null;
+                return;
+            }
+            final int comparison;
+            Object valueNative = null;
+            if (value.isNumber() && best.isNumber()) {
+                if (value.isIntegralNumber() && best.isIntegralNumber() && value.canConvertToLong() && best.canConvertToLong()) {
+                    comparison = Long.compare(value.longValue(), best.longValue());
+                } else {
+                    comparison = Double.compare(value.doubleValue(), best.doubleValue());
+                }
+            } else {
+                if (bestNative == null) {
+                    bestNative = toNative(best);
+                }
+                valueNative = toNative(value);
+                comparison = RowOrdering.compareValues(valueNative, bestNative);
+            }
+            if (max ? comparison > 0 : comparison < 0) {
+                best = value;
+                bestNative = valueNative;
+            }
+        }
+
+        private Object toNative(JsonNode value) {
+            if (value.isNumber()) {
+                return value.isIntegralNumber() && value.canConvertToLong() ? (Object) value.longValue() : (Object) value.doubleValue();
+            }
+            final Object result = GeneralConverters.convertJsonNodeToNative(value, hint);
+            return result instanceof Temporal || result instanceof String ? result : result.toString();
+        }
+
+        @Override
+        JsonNode result() {
+            return best == null ? NullNode.getInstance() : best;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.spartatech.sqljson.util.ColumnPath;
+import io.github.spartatech.sqljson.util.ColumnTypeHint;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.spartatech.sqljson.util.GeneralConverters.convertJsonNodeToNative;
+
+/**
+ * Values of a column of the table, one per element, in contiguous arrays.
+ * Columns with only integers are kept as longs, columns with only decimals as doubles, and any other column
+ * as codes into a dictionary of its distinct values, already converted to the native values the where clause sees.
+ * Elements whose value cannot be kept in the vector, such as nulls, missing fields, values of another type
+ * in numeric columns, or arrays and objects, are flagged in a bitmap and evaluated on the element itself.
+ * Immutable once built, can be read by multiple threads.
+ */
+final class ColumnVector {
+
+    enum Kind { LONG, DOUBLE, DICTIONARY }
+
+    final Kind kind;
+    final long[] longs;
+    final double[] doubles;
+    final int[] codes;
+    final Object[] dictionary;
+    final BitSet fallback;
+
+    private ColumnVector(Kind kind, long[] longs, double[] doubles, int[] codes, Object[] dictionary, BitSet fallback) {
+        this.kind = kind;
+        this.longs = longs;
+        this.doubles = doubles;
+        this.codes = codes;
+        this.dictionary = dictionary;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Builds the vector of the column.
+     *
+     * @param elements elements of the table
+     * @param column column to be read
+     * @return vector
+     */
+    static ColumnVector build(JsonNode[] elements, ColumnPath column) {
+        int longCount = 0;
+        int doubleCount = 0;
+        int otherCount = 0;
+        for (JsonNode element : elements) {
+            final JsonNode value = column.resolve(element);
+            if (value.isInt() || value.isLong()) {
+                longCount++;
+            } else if (value.isFloat() || value.isDouble()) {
+                doubleCount++;
+            } else if (value.isValueNode() && !value.isNull()) {
+                otherCount++;
+            }
+        }
+
+        if (longCount > 0 && doubleCount == 0 && otherCount == 0) {
+            final long[] longs = new long[elements.length];
+            final BitSet fallback = new BitSet(elements.length);
+            for (int i = 0; i < elements.length; i++) {
+                final JsonNode value = column.resolve(elements[i]);
+                if (value.isInt() || value.isLong()) {
+                    longs[i] = value.longValue();
+                } else {
+                    fallback.set(i);
+                }
+            }
+            return new ColumnVector(Kind.LONG, longs, null, null, null, fallback);
+        }
+        if (doubleCount > 0 && longCount == 0 && otherCount == 0) {
+            final double[] doubles = new double[elements.length];
+            final BitSet fallback = new BitSet(elements.length);
+            for (int i = 0; i < elements.length; i++) {
+                final JsonNode value = column.resolve(elements[i]);
+                if (value.isFloat() || value.isDouble()) {
+                    doubles[i] = value.doubleValue();
+                } else {
+                    fallback.set(i);
+                }
+            }
+            return new ColumnVector(Kind.DOUBLE, null, doubles, null, null, fallback);
+        }
+
+        final ColumnTypeHint hint = new ColumnTypeHint();
+        final int[] codes = new int[elements.length];
+        final BitSet fallback = new BitSet(elements.length);
+        final Map<Object, Integer> dictionaryCodes = new HashMap<>();
+        final List<Object> dictionary = new ArrayList<>();
+        for (int i = 0; i < elements.length; i++) {
+            final JsonNode value = column.resolve(elements[i]);
+            if (value.isContainerNode()) {
+                fallback.set(i);
+                continue;
+            }
+            final Object nativeValue = convertJsonNodeToNative(value, hint);
+            Integer code = dictionaryCodes.get(nativeValue);
+            if (code == null) {
+                code = dictionary.size();
+                dictionaryCodes.put(nativeValue, code);
+                dictionary.add(nativeValue);
+            }
+            codes[i] = code;
+        }
+        return new ColumnVector(Kind.DICTIONARY, null, null, codes, dictionary.toArray(), fallback);
+    }
+}
@@ -0,0 +1,294 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.AndFilter;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.BetweenFilter;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.ColumnResolver;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.ComparisonFilter;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.ComparisonOperator;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.ConstantValue;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.InFilter;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.NotFilter;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.OrFilter;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.ValueListResolver;
+import io.github.spartatech.sqljson.util.ColumnPath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.DoublePredicate;
+import java.util.function.LongPredicate;
+
+/**
+ * Columnar copy of a table, where the where clause is evaluated over column vectors instead of element by element.
+ * Vectors are built the first time a column is used by a where clause, and kept for the next queries.
+ * Each condition is evaluated only for the elements the row by row evaluation would evaluate it for:
+ * the right side of an AND only for elements kept by the left side, the right side of an OR only for elements
+ * rejected by the left side. Comparisons of integer and decimal columns with literals run in tight loops over
+ * primitive arrays, and conditions on other columns are evaluated once for each distinct value of the column.
+ * Conditions that cannot be vectorized, and elements whose value is not held by the vector, are evaluated
+ * on the element itself with the compiled filter.
+ */
+final class ColumnarTable {
+    private static final Logger log = LoggerFactory.getLogger(ColumnarTable.class);
+
+    private final JsonNode[] elements;
+    private final ConcurrentMap<String, ColumnVector> columns = new ConcurrentHashMap<>();
+
+    ColumnarTable(JsonNode[] elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * Finds the elements kept by the filter.
+     *
+     * @param filter compiled where clause
+     * @param candidates positions of the elements to be evaluated, in the order they are read, null for all elements
+     * @return positions of the elements kept, in the order of the candidates,
+     *         null when the evaluation fails, so the failure is raised by the row by row evaluation
+     */
+    int[] select(RowFilter filter, int[] candidates) {
+        final BitSet selection = new BitSet(elements.length);
+        if (candidates == null) {
+            selection.set(0, elements.length);
+        } else {
+            Arrays.stream(candidates).forEach(selection::set);
+        }
+
+        final BitSet kept;
+        try {
+            kept = select(filter, selection, new TypeHints());
+        } catch (RuntimeException e) {
+            log.debug("Columnar evaluation failed, evaluating row by row", e);
+            return null;
+        }
+        if (candidates == null) {
+            return kept.stream().toArray();
+        }
+        return Arrays.stream(candidates).filter(kept::get).toArray();
+    }
+
+    private BitSet select(RowFilter filter, BitSet selection, TypeHints hints) {
+        if (filter == RowFilter.ACCEPT_ALL || selection.isEmpty()) {
+            return selection;
+        }
+        if (filter instanceof AndFilter) {
+            return select(((AndFilter) filter).right, select(((AndFilter) filter).left, selection, hints), hints);
+        }
+        if (filter instanceof OrFilter) {
+            final BitSet left = select(((OrFilter) filter).left, selection, hints);
+            final BitSet rejected = (BitSet) selection.clone();
+            rejected.andNot(left);
+            final BitSet result = (BitSet) left.clone();
+            result.or(select(((OrFilter) filter).right, rejected, hints));
+            return result;
+        }
+        if (filter instanceof NotFilter) {
+            final BitSet result = (BitSet) selection.clone();
+            result.andNot(select(((NotFilter) filter).filter, selection, hints));
+            return result;
+        }
+        if (filter instanceof ComparisonFilter) {
+            return selectComparison((ComparisonFilter) filter, selection, hints);
+        }
+        if (filter instanceof BetweenFilter) {
+            return selectBetween((BetweenFilter) filter, selection, hints);
+        }
+        if (filter instanceof InFilter) {
+            return selectIn((InFilter) filter, selection, hints);
+        }
+        return selectRows(filter, selection, hints);
+    }
+
+    private BitSet selectComparison(ComparisonFilter filter, BitSet selection, TypeHints hints) {
+        final boolean columnOnLeft = filter.left instanceof ColumnResolver;
+        final ValueResolver column = columnOnLeft ? filter.left : filter.right;
+        final ValueResolver value = columnOnLeft ? filter.right : filter.left;
+        if (!(column instanceof ColumnResolver) || !(value instanceof ConstantValue) || ((ConstantValue) value).value == null) {
+            return selectRows(filter, selection, hints);
+        }
+        final ColumnVector vector = column(((ColumnResolver) column).path);
+        final Object constant = ((ConstantValue) value).value;
+        final ComparisonOperator operator = columnOnLeft ? filter.operator : filter.operator.reversed();
+
+        if (vector.kind == ColumnVector.Kind.LONG && constant instanceof Long) {
+            final long bound = (Long) constant;
+            return selectLongs(vector, filter, selection, hints, longComparison(operator, bound));
+        }
+        if (vector.kind == ColumnVector.Kind.DOUBLE && constant instanceof Double) {
+            final double bound = (Double) constant;
+            return selectDoubles(vector, filter, selection, hints, doubleComparison(operator, bound));
+        }
+        if (vector.kind == ColumnVector.Kind.DICTIONARY) {
+            return selectDictionary(vector, filter, selection, hints, entry -> columnOnLeft
+                    ? filter.operator.test(entry, constant)
+                    : filter.operator.test(constant, entry));
+        }
+        return selectRows(filter, selection, hints);
+    }
+
+    private static LongPredicate longComparison(ComparisonOperator operator, long bound) {
+        switch (operator) {
+            case EQUALS: return value -> value == bound;
+            case NOT_EQUALS: return value -> value != bound;
+            case GREATER_THAN: return value -> value > bound;
+            case GREATER_THAN_EQUAL: return value -> value >= bound;
+            case LESS_THAN: return value -> value < bound;
+            case LESS_THAN_EQUAL: return value -> value <= bound;
+            default: throw new IllegalStateException("Operator " + operator.symbol + " not implemented");
+        }
+    }
+
+    private static DoublePredicate doubleComparison(ComparisonOperator operator, double bound) {
+        switch (operator) {
+            // equality of decimals is Double.equals, as the row by row evaluation does
+            case EQUALS: return value -> Double.compare(value, bound) == 0;
+            case NOT_EQUALS: return value -> Double.compare(value, bound) != 0;
+            case GREATER_THAN: return value -> value > bound;
+            case GREATER_THAN_EQUAL: return value -> value >= bound;
+            case LESS_THAN: return value -> value < bound;
+            case LESS_THAN_EQUAL: return value -> value <= bound;
+            default: throw new IllegalStateException("Operator " + operator.symbol + " not implemented");
+        }
+    }
+
+    private BitSet selectBetween(BetweenFilter filter, BitSet selection, TypeHints hints) {
+        if (!(filter.field instanceof ColumnResolver)
+                || !(filter.start instanceof ConstantValue) || !(filter.end instanceof ConstantValue)) {
+            return selectRows(filter, selection, hints);
+        }
+        final Object start = ((ConstantValue) filter.start).value;
+        final Object end = ((ConstantValue) filter.end).value;
+        if (!isNumber(start) || !isNumber(end)) {
+            return selectRows(filter, selection, hints);
+        }
+        final ColumnVector vector = column(((ColumnResolver) filter.field).path);
+        if (vector.kind == ColumnVector.Kind.LONG && start instanceof Long && end instanceof Long) {
+            final long low = (Long) start;
+            final long high = (Long) end;
+            return selectLongs(vector, filter, selection, hints, value -> value >= low && value <= high);
+        }
+        final double low = ((Number) start).doubleValue();
+        final double high = ((Number) end).doubleValue();
+        if (vector.kind == ColumnVector.Kind.LONG) {
+            return selectLongs(vector, filter, selection, hints, value -> value >= low && value <= high);
+        }
+        if (vector.kind == ColumnVector.Kind.DOUBLE) {
+            return selectDoubles(vector, filter, selection, hints, value -> value >= low && value <= high);
+        }
+        return selectDictionary(vector, filter, selection, hints, entry -> BetweenFilter.between(entry, start, end));
+    }
+
+    private static boolean isNumber(Object value) {
+        return value instanceof Long || value instanceof Double;
+    }
+
+    private BitSet selectIn(InFilter filter, BitSet selection, TypeHints hints) {
+        final ValueListResolver left = filter.left;
+        final ValueListResolver right = filter.right;
+        if (left == null || right == null || right.constantKeys == null
+                || left.items.size() != 1 || !(left.items.get(0) instanceof ColumnResolver)
+                || (!right.constantValues.isEmpty() && right.constantValues.get(0) == null)) {
+            return selectRows(filter, selection, hints);
+        }
+        final ColumnVector vector = column(((ColumnResolver) left.items.get(0)).path);
+        final Class<?> listType = right.constantValues.isEmpty() ? null : right.constantValues.get(0).getClass();
+        if (vector.kind == ColumnVector.Kind.LONG && (listType == Long.class || listType == Double.class)) {
+            final long[] keys = right.constantKeys.stream()
+                    .filter(key -> key instanceof Long)
+                    .mapToLong(key -> (Long) key)
+                    .sorted()
+                    .toArray();
+            return selectLongs(vector, filter, selection, hints, value -> filter.not != (Arrays.binarySearch(keys, value) >= 0));
+        }
+        if (vector.kind == ColumnVector.Kind.DOUBLE && (listType == Long.class || listType == Double.class)) {
+            return selectDoubles(vector, filter, selection, hints,
+                    value -> filter.not != right.constantKeys.contains(WhereClauseCompiler.normalizeKey(value)));
+        }
+        if (vector.kind == ColumnVector.Kind.DICTIONARY) {
+            return selectDictionary(vector, filter, selection, hints, filter::testConstantList);
+        }
+        return selectRows(filter, selection, hints);
+    }
+
+    private BitSet selectLongs(ColumnVector vector, RowFilter filter, BitSet selection, TypeHints hints, LongPredicate predicate) {
+        final BitSet result = new BitSet(elements.length);
+        final long[] values = vector.longs;
+        final BitSet fallback = vector.fallback;
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            if (fallback.get(i) ? filter.test(elements[i], hints) : predicate.test(values[i])) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    private BitSet selectDoubles(ColumnVector vector, RowFilter filter, BitSet selection, TypeHints hints, DoublePredicate predicate) {
+        final BitSet result = new BitSet(elements.length);
+        final double[] values = vector.doubles;
+        final BitSet fallback = vector.fallback;
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            if (fallback.get(i) ? filter.test(elements[i], hints) : predicate.test(values[i])) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates the condition once for each distinct value of the column, the first time an element holding it is selected.
+     */
+    private BitSet selectDictionary(ColumnVector vector, RowFilter filter, BitSet selection, TypeHints hints, EntryPredicate predicate) {
+        final BitSet result = new BitSet(elements.length);
+        final int[] codes = vector.codes;
+        final BitSet fallback = vector.fallback;
+        final byte[] entries = new byte[vector.dictionary.length];
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            final boolean kept;
+            if (fallback.get(i)) {
+                kept = filter.test(elements[i], hints);
+            } else {
+                final int code = codes[i];
+                if (entries[code] == 0) {
+                    try {
+                        entries[code] = predicate.test(vector.dictionary[code]) ? (byte) 1 : (byte) 2;
+                    } catch (SQLException e) {
+                        throw ExceptionWrapper.of(e);
+                    }
+                }
+                kept = entries[code] == 1;
+            }
+            if (kept) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    private BitSet selectRows(RowFilter filter, BitSet selection, TypeHints hints) {
+        final BitSet result = new BitSet(elements.length);
+        for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1)) {
+            if (filter.test(elements[i], hints)) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    private ColumnVector column(ColumnPath path) {
+        return columns.computeIfAbsent(path.getExpression(), name -> {
+            log.debug("Building column vector for {}", name);
+            return ColumnVector.build(elements, path);
+        });
+    }
+
+    @FunctionalInterface
+    private interface EntryPredicate {
+        boolean test(Object entry) throws SQLException;
+    }
+}
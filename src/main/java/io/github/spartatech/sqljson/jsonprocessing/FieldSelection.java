@@ -0,0 +1,173 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.spartatech.sqljson.vo.JsonQueryClause;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.AllTableColumns;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.SelectItem;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fields of the elements a query references, in the select, where, group by, having and order by clauses,
+ * as a tree of field names. Elements read from a stream are built with only these fields,
+ * all others are skipped at the token level, without creating their nodes.
+ * Objects inside arrays of a selected field get the same selection, as columns are resolved through arrays.
+ * Immutable, can be shared between threads.
+ */
+final class FieldSelection {
+
+    /**
+     * Selected fields, mapped to the selection inside them, null when the whole field is selected.
+     */
+    private final Map<String, FieldSelection> fields = new HashMap<>();
+
+    private FieldSelection() {
+
+    }
+
+    /**
+     * Finds the fields the query references.
+     *
+     * @param query parsed query
+     * @return selection, null in case the whole element is needed, such as in {@code select *}
+     */
+    static FieldSelection of(JsonQueryClause query) {
+        final ColumnCollector collector = new ColumnCollector();
+        for (SelectItem item : query.getReturningFields()) {
+            item.accept(collector);
+        }
+        collector.collect(query.getFilters());
+        collector.collect(query.getHaving());
+        if (query.getGroupByExpressions() != null) {
+            query.getGroupByExpressions().forEach(collector::collect);
+        }
+        if (query.getOrderByElements() != null) {
+            for (OrderByElement element : query.getOrderByElements()) {
+                collector.collect(element.getExpression());
+            }
+        }
+        return collector.wholeElement ? null : collector.selection;
+    }
+
+    private void add(String[] path, int from) {
+        final String name = path[from];
+        if (fields.containsKey(name) && fields.get(name) == null) {
+            return;
+        }
+        if (from == path.length - 1) {
+            fields.put(name, null);
+        } else {
+            fields.computeIfAbsent(name, key -> new FieldSelection()).add(path, from + 1);
+        }
+    }
+
+    /**
+     * Whether the field of the object is selected.
+     *
+     * @param name field name
+     * @return true -> field is selected
+     */
+    boolean selects(String name) {
+        return fields.containsKey(name);
+    }
+
+    /**
+     * Reads the value of a selected field, keeping only the fields selected inside it.
+     *
+     * @param name field name
+     * @param parser parser positioned at the first token of the value
+     * @param reader reader used to create the nodes
+     * @return value
+     * @throws IOException in case the Json cannot be read
+     */
+    JsonNode readField(String name, JsonParser parser, ObjectReader reader) throws IOException {
+        final FieldSelection inner = fields.get(name);
+        return inner == null ? reader.readTree(parser) : inner.read(parser, reader);
+    }
+
+    /**
+     * Reads the value the parser is positioned at, keeping only the selected fields of objects.
+     * The parser is left at the last token of the value, as {@link ObjectReader#readTree(JsonParser)} does.
+     *
+     * @param parser parser positioned at the first token of the value
+     * @param reader reader used to create the nodes
+     * @return value
+     * @throws IOException in case the Json cannot be read
+     */
+    JsonNode read(JsonParser parser, ObjectReader reader) throws IOException {
+        final JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            final ObjectNode node = reader.getConfig().getNodeFactory().objectNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.getCurrentName();
+                parser.nextToken();
+                if (!selects(name)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                node.set(name, readField(name, parser, reader));
+            }
+            return node;
+        }
+        if (token == JsonToken.START_ARRAY) {
+            final ArrayNode node = reader.getConfig().getNodeFactory().arrayNode();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                node.add(read(parser, reader));
+            }
+            return node;
+        }
+        return reader.readTree(parser);
+    }
+
+    @Override
+    public String toString() {
+        return fields.toString();
+    }
+
+    /**
+     * Collects the columns of the expressions. Any selector or column that needs the whole element,
+     * or a name that is not a plain path, disables the selection.
+     */
+    private static class ColumnCollector extends ExpressionVisitorAdapter {
+        private final FieldSelection selection = new FieldSelection();
+        private boolean wholeElement;
+
+        void collect(Expression expression) {
+            if (expression != null) {
+                expression.accept(this);
+            }
+        }
+
+        @Override
+        public void visit(Column column) {
+            final String name = column.getFullyQualifiedName();
+            if (name.isEmpty() || name.indexOf('"') >= 0 || name.indexOf('`') >= 0) {
+                wholeElement = true;
+                return;
+            }
+            selection.add(name.split("\\.", -1), 0);
+        }
+
+        @Override
+        public void visit(AllColumns allColumns) {
+            wholeElement = true;
+        }
+
+        @Override
+        public void visit(AllTableColumns allTableColumns) {
+            wholeElement = true;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+import io.github.spartatech.sqljson.util.MappedInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Table source over all files of a directory matching a glob, in the order of their names.
+ * The table is the union of the elements of the table in every file, each file is read as a stream.
+ * Files are listed again on every query, and each of them is a partition of the table.
+ */
+public class FileSetTableSource implements TableSource {
+    private static final Logger log = LoggerFactory.getLogger(FileSetTableSource.class);
+
+    private final ObjectReader reader;
+    private final Path directory;
+    private final String glob;
+
+    /**
+     * Constructor.
+     *
+     * @param reader reader used to create elements from the tokens
+     * @param directory directory with the files
+     * @param glob pattern of the file names, such as {@code *.json}
+     */
+    public FileSetTableSource(ObjectReader reader, Path directory, String glob) {
+        this.reader = reader;
+        this.directory = directory;
+        this.glob = glob;
+    }
+
+    @Override
+    public TableCursor open(QueryPlan plan) throws IOException {
+        return new ChainedCursor(partitions(plan).iterator());
+    }
+
+    /**
+     * One partition per file, regardless of the partitions desired, the execution bounds how many files are read at once.
+     */
+    @Override
+    public List<TablePartition> split(QueryPlan plan, int partitions, int minimumSize) throws IOException {
+        final List<TablePartition> files = partitions(plan);
+        if (partitions <= 1 || files.size() <= 1) {
+            return List.of(() -> new ChainedCursor(files.iterator()));
+        }
+        log.debug("Splitting {} files in {} in one partition per file", files.size(), directory);
+        return files;
+    }
+
+    private List<TablePartition> partitions(QueryPlan plan) throws IOException {
+        final List<TablePartition> result = new ArrayList<>();
+        for (Path file : files()) {
+            final JsonStreamTableSource source = new JsonStreamTableSource(reader, () -> reader.getFactory().createParser(MappedInputStream.open(file)));
+            result.add(() -> source.open(plan));
+        }
+        return result;
+    }
+
+    private List<Path> files() throws IOException {
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(null);
+        log.debug("Found {} files matching {} in {}", files.size(), glob, directory);
+        return files;
+    }
+
+    /**
+     * Reads the partitions one after the other, only one of them is open at a time.
+     */
+    private static class ChainedCursor implements TableCursor {
+        private final Iterator<TablePartition> partitions;
+        private TableCursor current;
+
+        ChainedCursor(Iterator<TablePartition> partitions) {
+            this.partitions = partitions;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (current == null || !current.hasNext()) {
+                    if (current != null) {
+                        current.close();
+                        current = null;
+                    }
+                    if (!partitions.hasNext()) {
+                        return false;
+                    }
+                    current = partitions.next().open();
+                }
+                return true;
+            } catch (IOException e) {
+                throw ExceptionWrapper.of(e);
+            }
+        }
+
+        @Override
+        public JsonNode next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.spartatech.sqljson.util.ColumnPath;
+import io.github.spartatech.sqljson.util.ColumnTypeHint;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static io.github.spartatech.sqljson.util.GeneralConverters.convertJsonNodeToNative;
+
+/**
+ * Hash index from the values of a column to the positions of the elements holding them.
+ * Values are keyed as the where clause sees them, converted to native values and normalized
+ * as the IN lists are, so integral numbers share the same key regardless of being written as decimals.
+ * Positions of each key are in the order of the table.
+ * Immutable once built, can be read by multiple threads.
+ */
+final class HashIndex {
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final Map<Object, int[]> positions;
+    private final Set<Class<?>> types;
+
+    private HashIndex(Map<Object, int[]> positions, Set<Class<?>> types) {
+        this.positions = positions;
+        this.types = types;
+    }
+
+    /**
+     * Builds the index for the column.
+     *
+     * @param elements elements of the table
+     * @param column column indexed
+     * @return index
+     */
+    static HashIndex build(JsonNode[] elements, ColumnPath column) {
+        final ColumnTypeHint hint = new ColumnTypeHint();
+        final Map<Object, PositionList> lists = new HashMap<>();
+        final Set<Class<?>> types = new HashSet<>();
+        for (int i = 0; i < elements.length; i++) {
+            final Object value = convertJsonNodeToNative(column.resolve(elements[i]), hint);
+            types.add(value.getClass());
+            lists.computeIfAbsent(keyOf(value), k -> new PositionList()).add(i);
+        }
+        final Map<Object, int[]> positions = new HashMap<>(lists.size() * 2);
+        lists.forEach((key, list) -> positions.put(key, list.toArray()));
+        return new HashIndex(positions, Set.copyOf(types));
+    }
+
+    /**
+     * Key the value is indexed by.
+     *
+     * @param value native value
+     * @return key
+     */
+    static Object keyOf(Object value) {
+        return WhereClauseCompiler.normalizeKey(value);
+    }
+
+    /**
+     * Checks whether all values of the column are of the type.
+     *
+     * @param type type of the values
+     * @return true if there's no value of another type
+     */
+    boolean holdsOnly(Class<?> type) {
+        return types.size() <= 1 && (types.isEmpty() || types.contains(type));
+    }
+
+    /**
+     * Positions of the elements holding the value.
+     *
+     * @param value native value
+     * @return positions, in the order of the table
+     */
+    int[] lookup(Object value) {
+        return positions.getOrDefault(keyOf(value), NO_POSITIONS);
+    }
+
+    /**
+     * Positions of the elements holding any of the values.
+     *
+     * @param values native values
+     * @return positions, in the order of the table
+     */
+    int[] lookupAll(Collection<Object> values) {
+        int[] result = NO_POSITIONS;
+        int size = 0;
+        for (Object value : values) {
+            final int[] found = lookup(value);
+            if (size + found.length > result.length) {
+                result = Arrays.copyOf(result, Math.max(size + found.length, result.length * 2));
+            }
+            System.arraycopy(found, 0, result, size, found.length);
+            size += found.length;
+        }
+        result = Arrays.copyOf(result, size);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Growable list of positions, used while building the index.
+     */
+    private static final class PositionList {
+        private int[] items = new int[1];
+        private int size;
+
+        void add(int position) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = position;
+        }
+
+        int[] toArray() {
+            return items.length == size ? items : Arrays.copyOf(items, size);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.github.spartatech.sqljson.util.MappedInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table source over a JSON Lines file, where every line is a Json value.
+ * The table is looked up in every line, lines that are the table themselves (table {@code "."})
+ * are its elements, and lines without the table are skipped.
+ * As lines are self-delimiting, the file is split at line breaks into chunks that are parsed independently.
+ */
+public class JsonLinesTableSource implements TableSource {
+    private static final Logger log = LoggerFactory.getLogger(JsonLinesTableSource.class);
+
+    private static final int SAMPLE_SIZE = 64 * 1024;
+
+    private final ObjectReader reader;
+    private final Path file;
+
+    /**
+     * Constructor.
+     *
+     * @param reader reader used to create elements from the tokens
+     * @param file JSON Lines file
+     */
+    public JsonLinesTableSource(ObjectReader reader, Path file) {
+        this.reader = reader;
+        this.file = file;
+    }
+
+    @Override
+    public TableCursor open(QueryPlan plan) throws IOException {
+        return chunk(0, Long.MAX_VALUE).open(plan);
+    }
+
+    /**
+     * Splits the file in chunks of similar sizes, each starting at the beginning of a line.
+     * The number of lines is estimated from the first bytes of the file.
+     */
+    @Override
+    public List<TablePartition> split(QueryPlan plan, int partitions, int minimumSize) throws IOException {
+        final long size = Files.size(file);
+        if (partitions <= 1 || estimateLines(size) < minimumSize) {
+            return List.of(() -> open(plan));
+        }
+
+        final List<Long> starts = new ArrayList<>(partitions);
+        starts.add(0L);
+        for (int i = 1; i < partitions; i++) {
+            final long start = nextLine(size * i / partitions);
+            if (start < size && start > starts.get(starts.size() - 1)) {
+                starts.add(start);
+            }
+        }
+        log.debug("Splitting {} of {} bytes in {} chunks", file, size, starts.size());
+        final List<TablePartition> result = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            final JsonStreamTableSource chunk = chunk(starts.get(i), i + 1 < starts.size() ? starts.get(i + 1) : size);
+            result.add(() -> chunk.open(plan));
+        }
+        return result;
+    }
+
+    private JsonStreamTableSource chunk(long start, long end) {
+        return new JsonStreamTableSource(reader, () -> reader.getFactory().createParser(MappedInputStream.open(file, start, end)), false);
+    }
+
+    private long estimateLines(long size) throws IOException {
+        long sampled = 0;
+        long lines = 0;
+        try (InputStream input = MappedInputStream.open(file, 0, SAMPLE_SIZE)) {
+            int read;
+            while ((read = input.read()) >= 0) {
+                sampled++;
+                if (read == '\n') {
+                    lines++;
+                }
+            }
+        }
+        return sampled == 0 ? 0 : Math.max(1, size * lines / sampled);
+    }
+
+    /**
+     * Position right after the first line break at or after the given position.
+     *
+     * @param position position in the file
+     * @return start of the next line, or the size of the file when there is none
+     */
+    private long nextLine(long position) throws IOException {
+        try (InputStream input = MappedInputStream.open(file, position, Long.MAX_VALUE)) {
+            int read;
+            while ((read = input.read()) >= 0) {
+                position++;
+                if (read == '\n') {
+                    break;
+                }
+            }
+        }
+        return position;
+    }
+}
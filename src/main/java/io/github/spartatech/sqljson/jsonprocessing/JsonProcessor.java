@@ -1,19 +1,22 @@
 package io.github.spartatech.sqljson.jsonprocessing;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import io.github.spartatech.sqljson.SqlJsonConfig;
 import io.github.spartatech.sqljson.exception.ExceptionWrapper;
-import io.github.spartatech.sqljson.util.JsonUtility;
 import io.github.spartatech.sqljson.vo.JsonQueryClause;
 import io.github.spartatech.sqljson.vo.JsonResultSet;
-import net.sf.jsqlparser.statement.select.SelectItem;
+import io.github.spartatech.sqljson.vo.JsonResultSetCursor;
+import io.github.spartatech.sqljson.vo.ResultRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLSyntaxErrorException;
-import java.util.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Processes the query against given Json
@@ -22,8 +25,9 @@ import java.util.stream.Collectors;
 public class JsonProcessor {
     private static final Logger log = LoggerFactory.getLogger(JsonProcessor.class);
 
-    private final JsonNode json;
+    private final TableSource source;
     private final JsonQueryClause query;
+    private final QueryPlan preparedPlan;
     private final SqlJsonConfig config;
 
     /**
@@ -33,36 +37,51 @@ public class JsonProcessor {
      * @param query SQL to be executed
      */
     public JsonProcessor(JsonNode json, JsonQueryClause query, SqlJsonConfig config) {
-        this.json = json;
+        this.source = new JsonTreeTableSource(json);
         this.query = query;
+        this.preparedPlan = null;
+        this.config = config;
+    }
+
+    /**
+     * Constructor receiving JSON and an already prepared plan.
+     *
+     * @param json json to be queried
+     * @param plan plan to be executed
+     */
+    public JsonProcessor(JsonNode json, QueryPlan plan, SqlJsonConfig config) {
+        this(new JsonTreeTableSource(json), plan, config);
+    }
+
+    /**
+     * Constructor receiving the source of the table and an already prepared plan.
+     *
+     * @param source source of the table elements
+     * @param plan plan to be executed
+     */
+    public JsonProcessor(TableSource source, QueryPlan plan, SqlJsonConfig config) {
+        this.source = source;
+        this.query = plan.getQuery();
+        this.preparedPlan = plan;
         this.config = config;
     }
 
     /**
      * Main processor method.
+     * Elements are read from the source one at a time, and only the selected columns
+     * of the elements kept by the filter are retained.
+     * When parallel execution is enabled large tables are scanned in parallel.
      *
      * @return List of results found
      * @throws Exception in case of any failure
      */
     public JsonResultSet process() throws Exception {
-        try {
-            //find table
-            final JsonNode table = findElementInJson();
-
-            //filter list
-            final List<JsonNode> filtered = filter(table);
-
-            //select only items requested
-            final List<LinkedHashMap<String, JsonNode>> narrowedData = narrowResultElements(filtered);
-
-            //Convert to resultSet
-            JsonResultSet.JsonResultSetBuilder result = convertDataToResultSetBuilder(narrowedData);
-
-            //Apply distinct
-            if (query.isDistinctResults()) {
-                result.applyDistinct();
+        try (QueryExecution execution = config.isParallelExecution() ? executeParallel() : execute()) {
+            final JsonResultSet.JsonResultSetBuilder result = JsonResultSet.JsonResultSetBuilder.instance();
+            while (execution.hasNext()) {
+                result.addRow(execution.next());
             }
-
+            result.setHeaders(execution.getHeader());
             return result.build();
         } catch (ExceptionWrapper e) {
             throw e.unwrap();
@@ -70,126 +89,85 @@ public class JsonProcessor {
     }
 
     /**
-     * Converts from Internal data structure into JsonResultSet.
+     * Processes the query lazily, rows are only produced as the result set is iterated.
+     * The returned result set is forward-only, and must be closed in case it's not iterated until the end.
      *
-     * @param narrowedData internal data representation
-     * @return JsonResultSet
+     * @return forward-only cursor over the results
+     * @throws Exception in case of any failure starting the query
      */
-    private JsonResultSet.JsonResultSetBuilder convertDataToResultSetBuilder(List<LinkedHashMap<String, JsonNode>> narrowedData) {
-        final JsonResultSet.JsonResultSetBuilder builder = JsonResultSet.JsonResultSetBuilder.instance();
-        if (narrowedData.size() > 0) {
-            final Set<String> headers = narrowedData.get(0).keySet();
-            builder.setHeaders(headers);
-            narrowedData.forEach(it -> {
-                final List<JsonNode> row = new ArrayList<>();
-                headers.forEach(colName -> row.add(it.get(colName)));
-                builder.addRow(row);
-            });
+    public JsonResultSet processLazily() throws Exception {
+        try {
+            return new JsonResultSetCursor(execute());
+        } catch (ExceptionWrapper e) {
+            throw e.unwrap();
         }
-        return builder;
     }
 
     /**
-     * Return the selected columns.
-     * Star will return all fields
-     * . (dot) will return a json
+     * Streams the rows lazily, they are only produced as the stream is consumed.
+     * The stream must be closed in case it's not consumed until the end.
      *
-     * @param elements all elements to filter columns
-     * @return List rows, where rows are a map of cols
-     * @throws SQLSyntaxErrorException in case selectors are invalid
+     * @return sequential stream of the results
+     * @throws Exception in case of any failure starting the query
      */
-    public List<LinkedHashMap<String, JsonNode>> narrowResultElements(List<JsonNode> elements) throws SQLSyntaxErrorException {
-        if (query.getReturningFields().get(0).toString().equals("\".\"") && query.getReturningFields().size() > 1) {
-            throw new SQLSyntaxErrorException("Selectors '.' cannot be combined with anything else");
-        }
-        if (query.getReturningFields().size() == 1
-                && query.getReturningFields().get(0).toString().equals("\".\"")) {
-            return elements.stream()
-                    .map(item -> new LinkedHashMap<>(Map.of(".", item)))
-                    .collect(Collectors.toList());
+    public Stream<ResultRow> stream() throws Exception {
+        final QueryPlan plan = preparedPlan != null ? preparedPlan : QueryPlan.of(query);
+        log.debug("Streaming query: {}", query);
+        try {
+            return QueryExecution.stream(source, plan, config);
+        } catch (ExceptionWrapper e) {
+            throw e.unwrap();
         }
-
-        return elements.stream()
-                .map(row -> {
-                    final LinkedHashMap<String, JsonNode> newRow = new LinkedHashMap<>();
-                    for (SelectItem field : query.getReturningFields()) {
-                        final SelectClauseExpressionEvaluator evaluator = new SelectClauseExpressionEvaluator(row, config);
-                        field.accept(evaluator);
-                        newRow.putAll(evaluator.getResult());
-
-//                        if (field instanceof AllColumns) {
-//                            newRow.putAll(flattenJsonFields(row));
-//                        } else if (field instanceof SelectExpressionItem) {
-////                            final SelectExpressionItem fieldEx = (SelectExpressionItem) field;
-////                            if (!(fieldEx.getExpression() instanceof Column)) {
-////                                throw new ExpressionNotSupportedException(fieldEx.getClass() + " in select");
-////                            }
-////                            final Column column = (Column)fieldEx.getExpression();
-////                            final String fieldName = column.getFullyQualifiedName();
-////                            final JsonNode value = JsonUtility.findElementInJson(row, fieldName, fieldName.split("\\."));
-////
-////                            if (value.isMissingNode()) {
-////                                throw ExceptionWrapper.of(
-////                                        new SQLException("Field \"" + field + "\" not found in the json result"));
-////                            }
-////                            final String alias;
-////                            if (fieldEx.getAlias() != null) {
-////                                alias = fieldEx.getAlias().getName();
-////                            } else {
-////                                alias = fieldName;
-////                            }
-////
-////                            newRow.put(alias, value);
-//                        }
-                    }
-                    return newRow;
-                }).collect(Collectors.toList());
     }
 
+    /**
+     * Publishes the rows as they are produced, pulling them from the execution as the subscribers request them.
+     * Each subscription executes the query again, sequentially.
+     *
+     * @param executor executor delivering the signals to the subscribers
+     * @return publisher of the rows
+     */
+    public Flow.Publisher<ResultRow> publish(Executor executor) {
+        return new QueryPublisher(this::execute, executor);
+    }
 
     /**
-     * Filters table elements using query parameters.
+     * Starts the execution of the query.
      *
-     * @param table to be filtered
-     * @return Filtered elements
+     * @return execution
+     * @throws Exception in case of any failure
      */
-    private List<JsonNode> filter(JsonNode table) {
-        if (table instanceof ArrayNode) {
-            final ArrayNode items = (ArrayNode) table;
-            final List<JsonNode> result = new ArrayList<>();
-            for (JsonNode item : items) {
-                filter(item).stream()
-                        .filter(Objects::nonNull)
-                        .forEachOrdered(result::add);
-            }
-            return result;
-        } else {
-            if (query.getFilters() == null) {
-                return List.of(table);
-            } else {
-                final WhereClauseExpressionEvaluator ev = new WhereClauseExpressionEvaluator(table);
-                query.getFilters().accept(ev);
-                if (ev.isKeep()) {
-                    return List.of(table);
-                } else {
-                    return List.of();
-                }
-            }
-        }
+    private QueryExecution execute() throws Exception {
+        final QueryPlan plan = preparedPlan != null ? preparedPlan : QueryPlan.of(query);
+        log.debug("Processing query: {}", query);
+        return QueryExecution.start(source, plan, config);
     }
 
     /**
-     * Finds a table (element in the json). From inital query.
-     * Entry-point.
+     * Starts the execution of the query, scanning the table in parallel.
      *
-     * @return Object for the table
+     * @return execution
+     * @throws Exception in case of any failure
      */
-    private JsonNode findElementInJson() {
-        log.debug("Finding element in Json for table: {}", query.getRootElement());
-        final String[] pathTokens = query.getRootElement().equals(".")
-                ? new String[0]
-                : query.getRootElement().split("\\.");
+    private QueryExecution executeParallel() throws Exception {
+        final QueryPlan plan = preparedPlan != null ? preparedPlan : QueryPlan.of(query);
+        log.debug("Processing query in parallel: {}", query);
+        return QueryExecution.startParallel(source, plan, config);
+    }
 
-        return JsonUtility.findElementInJson(json, query.getRootElement(), pathTokens, false);
+    /**
+     * Return the selected columns.
+     * Star will return all fields
+     * . (dot) will return a json
+     *
+     * @param elements all elements to filter columns
+     * @return List rows, where rows are a map of cols
+     * @throws SQLSyntaxErrorException in case selectors are invalid
+     */
+    public List<LinkedHashMap<String, JsonNode>> narrowResultElements(List<JsonNode> elements) throws SQLSyntaxErrorException {
+        final RowProjector projector = new RowProjector(query, config);
+        return elements.stream()
+                .map(projector::project)
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,245 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+import io.github.spartatech.sqljson.util.ColumnPath;
+import io.github.spartatech.sqljson.util.JsonUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+
+/**
+ * Table source that reads the Json as a stream of tokens, without building the whole tree.
+ * Subtrees unrelated to the table are skipped, and only one element of the table is
+ * materialized at a time, with only the fields the query references.
+ * Simple conditions of the where clause are evaluated while the element is read, so the rest
+ * of the elements that fail them is skipped.
+ */
+public class JsonStreamTableSource implements TableSource {
+    private static final Logger log = LoggerFactory.getLogger(JsonStreamTableSource.class);
+
+    private final ObjectReader reader;
+    private final ParserFactory parserFactory;
+    private final boolean tableRequired;
+
+    /**
+     * Constructor.
+     *
+     * @param mapper mapper used to create elements from the tokens
+     * @param parserFactory creates a new parser positioned at the beginning of the Json
+     */
+    public JsonStreamTableSource(ObjectMapper mapper, ParserFactory parserFactory) {
+        this(mapper.reader(), parserFactory, true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param reader reader used to create elements from the tokens
+     * @param parserFactory creates a new parser positioned at the beginning of the Json
+     */
+    public JsonStreamTableSource(ObjectReader reader, ParserFactory parserFactory) {
+        this(reader, parserFactory, true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param reader reader used to create elements from the tokens
+     * @param parserFactory creates a new parser positioned at the beginning of the Json
+     * @param tableRequired whether a Json without the table fails, or is read as an empty table
+     */
+    JsonStreamTableSource(ObjectReader reader, ParserFactory parserFactory, boolean tableRequired) {
+        this.reader = reader;
+        this.parserFactory = parserFactory;
+        this.tableRequired = tableRequired;
+    }
+
+    @Override
+    public TableCursor open(QueryPlan plan) throws IOException {
+        final String rootElement = plan.getQuery().getRootElement();
+        log.debug("Streaming elements for table: {}", rootElement);
+        return new StreamCursor(parserFactory.create(), ColumnPath.ofTable(rootElement), plan.getFieldSelection(), plan.getTokenFilter());
+    }
+
+    /**
+     * Creates the parser for each execution.
+     */
+    @FunctionalInterface
+    public interface ParserFactory {
+        JsonParser create() throws IOException;
+    }
+
+    /**
+     * Walks through the tokens seeking the table path. Arrays found in the path are traversed
+     * into each of their items, and arrays inside the table are flattened into its elements.
+     */
+    private class StreamCursor implements TableCursor {
+        private final JsonParser parser;
+        private final ColumnPath path;
+        private final FieldSelection selection;
+        private final TokenFilter.Evaluation evaluation;
+        private final Deque<Frame> frames = new ArrayDeque<>();
+
+        private boolean finished;
+        private boolean found;
+        private int firstListDepth = -1;
+        private JsonNode next;
+
+        StreamCursor(JsonParser parser, ColumnPath path, FieldSelection selection, TokenFilter tokenFilter) {
+            this.parser = parser;
+            this.path = path;
+            this.selection = selection;
+            this.evaluation = tokenFilter == null ? null : tokenFilter.evaluation(reader.getConfig());
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                try {
+                    next = advance();
+                } catch (IOException | SQLException e) {
+                    finished = true;
+                    throw ExceptionWrapper.of(e);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public JsonNode next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final JsonNode result = next;
+            next = null;
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            finished = true;
+            next = null;
+            parser.close();
+        }
+
+        private JsonNode advance() throws IOException, SQLException {
+            while (true) {
+                JsonToken token = parser.nextToken();
+                if (token == null) {
+                    finished = true;
+                    if (!found && tableRequired) {
+                        throw firstListDepth < 0 ? JsonUtility.elementNotFound(path.getExpression())
+                                : JsonUtility.elementNotFound(path, firstListDepth);
+                    }
+                    return null;
+                }
+
+                final Frame frame = frames.peek();
+                final int depth;
+                if (frame == null) {
+                    depth = 0;
+                } else if (token == JsonToken.END_ARRAY || token == JsonToken.END_OBJECT) {
+                    frames.pop();
+                    continue;
+                } else if (frame.array) {
+                    depth = frame.depth;
+                } else {
+                    final String fieldName = parser.getCurrentName();
+                    token = parser.nextToken();
+                    if (!fieldName.equals(path.segment(frame.depth))) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    depth = frame.depth + 1;
+                }
+
+                if (depth == path.length()) {
+                    found = true;
+                    if (token == JsonToken.START_ARRAY) {
+                        frames.push(new Frame(true, depth));
+                        continue;
+                    }
+                    final JsonNode element = readElement();
+                    if (element == null) {
+                        continue;
+                    }
+                    return element;
+                } else if (token == JsonToken.START_ARRAY) {
+                    // The rest of the path is looked up in the items, named by the failure in case it's not found
+                    if (firstListDepth < 0) {
+                        firstListDepth = depth;
+                    }
+                    frames.push(new Frame(true, depth));
+                } else if (token == JsonToken.START_OBJECT) {
+                    frames.push(new Frame(false, depth));
+                }
+            }
+        }
+
+        /**
+         * Reads the element the parser is positioned at, with only the selected fields.
+         * Objects are read field by field while the token filter evaluates them, scalar fields on their token.
+         * Once the element is rejected its unselected fields are skipped, while the selected ones are still read
+         * in case a repeated field accepts it again with a later value, as the tree takes the last one;
+         * they are dropped at the end of the element if it's still rejected.
+         *
+         * @return element, null in case it was rejected
+         */
+        private JsonNode readElement() throws IOException {
+            if (evaluation == null || parser.currentToken() != JsonToken.START_OBJECT) {
+                return selection == null ? reader.readTree(parser) : selection.read(parser, reader);
+            }
+
+            evaluation.reset();
+            final ObjectNode element = reader.getConfig().getNodeFactory().objectNode();
+            boolean rejected = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String name = parser.getCurrentName();
+                parser.nextToken();
+                JsonNode value = null;
+                if (evaluation.evaluates(name)) {
+                    Object nativeValue = evaluation.valueOf(name, parser);
+                    if (nativeValue == null) {
+                        value = readField(name);
+                        nativeValue = evaluation.valueOf(name, value);
+                    }
+                    rejected = evaluation.rejects(name, nativeValue);
+                }
+                if (selection != null && !selection.selects(name)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                element.set(name, value == null ? readField(name) : value);
+            }
+            return rejected ? null : element;
+        }
+
+        private JsonNode readField(String name) throws IOException {
+            return selection == null ? reader.readTree(parser) : selection.readField(name, parser, reader);
+        }
+    }
+
+    /**
+     * Container being read, and how much of the path was matched to reach it.
+     */
+    private static class Frame {
+        final boolean array;
+        final int depth;
+
+        Frame(boolean array, int depth) {
+            this.array = array;
+            this.depth = depth;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.spartatech.sqljson.util.ColumnPath;
+import io.github.spartatech.sqljson.util.JsonUtility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Table source over a Json already loaded in memory.
+ * When the table has indexes that apply to the query, only the elements found in them are read.
+ */
+public class JsonTreeTableSource implements TableSource {
+    private static final Logger log = LoggerFactory.getLogger(JsonTreeTableSource.class);
+
+    private final JsonNode json;
+    private final TableIndexes indexes;
+
+    public JsonTreeTableSource(JsonNode json) {
+        this(json, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param json json to be queried
+     * @param indexes indexes created on the json, null when there are none
+     */
+    public JsonTreeTableSource(JsonNode json, TableIndexes indexes) {
+        this.json = json;
+        this.indexes = indexes;
+    }
+
+    @Override
+    public TableCursor open(QueryPlan plan) throws IOException {
+        final TablePartition indexed = indexes == null ? null : indexes.lookup(plan);
+        if (indexed != null) {
+            return indexed.open();
+        }
+        return new TreeCursor(findTable(plan.getQuery().getRootElement()));
+    }
+
+    /**
+     * Splits the table array in ranges of elements with similar sizes.
+     */
+    @Override
+    public List<TablePartition> split(QueryPlan plan, int partitions, int minimumSize) {
+        final TablePartition indexed = indexes == null ? null : indexes.lookup(plan);
+        if (indexed != null) {
+            return List.of(indexed);
+        }
+        final JsonNode table = findTable(plan.getQuery().getRootElement());
+        if (!table.isArray() || table.size() < minimumSize || partitions <= 1) {
+            return List.of(new TreePartition(() -> new TreeCursor(table), table.isArray() ? table.size() : 1));
+        }
+
+        final int size = table.size();
+        final int count = Math.min(partitions, size);
+        log.debug("Splitting table {} of {} elements in {} partitions", plan.getQuery().getRootElement(), size, count);
+        final List<TablePartition> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final int from = (int) ((long) size * i / count);
+            final int to = (int) ((long) size * (i + 1) / count);
+            result.add(new TreePartition(() -> new TreeCursor(IntStream.range(from, to).mapToObj(table::get).iterator()), to - from));
+        }
+        return result;
+    }
+
+    /**
+     * Finds a table (element in the json). From inital query.
+     * Entry-point.
+     *
+     * @param rootElement table name
+     * @return Object for the table
+     */
+    public JsonNode findTable(String rootElement) {
+        log.debug("Finding element in Json for table: {}", rootElement);
+        return JsonUtility.findElementInJson(json, ColumnPath.ofTable(rootElement), false);
+    }
+
+    /**
+     * Elements of the table, with arrays inside the table flattened, in the order they are read.
+     *
+     * @param table table found in the json
+     * @return elements
+     */
+    static JsonNode[] elementsOf(JsonNode table) {
+        final List<JsonNode> result = new ArrayList<>(table.size());
+        new TreeCursor(table).forEachRemaining(result::add);
+        return result.toArray(new JsonNode[0]);
+    }
+
+    /**
+     * Range of the table array, sized by its number of items. Arrays inside the items are flattened
+     * when read, so the estimate is a lower bound.
+     */
+    private static final class TreePartition implements TablePartition {
+        private final TablePartition cursor;
+        private final long size;
+
+        TreePartition(TablePartition cursor, long size) {
+            this.cursor = cursor;
+            this.size = size;
+        }
+
+        @Override
+        public TableCursor open() throws IOException {
+            return cursor.open();
+        }
+
+        @Override
+        public long estimateSize() {
+            return size;
+        }
+    }
+
+    /**
+     * Iterates over the table, arrays inside the table are flattened into its elements.
+     */
+    private static class TreeCursor implements TableCursor {
+        private final Deque<Iterator<JsonNode>> arrays = new ArrayDeque<>();
+        private JsonNode next;
+
+        TreeCursor(JsonNode table) {
+            if (table.isArray()) {
+                arrays.push(table.elements());
+            } else {
+                next = table;
+            }
+        }
+
+        TreeCursor(Iterator<JsonNode> items) {
+            arrays.push(items);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && !arrays.isEmpty()) {
+                final Iterator<JsonNode> current = arrays.peek();
+                if (!current.hasNext()) {
+                    arrays.pop();
+                } else {
+                    final JsonNode item = current.next();
+                    if (item.isArray()) {
+                        arrays.push(item.elements());
+                    } else {
+                        next = item;
+                    }
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public JsonNode next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final JsonNode result = next;
+            next = null;
+            return result;
+        }
+
+        @Override
+        public void close() {
+            arrays.clear();
+            next = null;
+        }
+    }
+}
@@ -0,0 +1,690 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.spartatech.sqljson.SqlJsonConfig;
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+import io.github.spartatech.sqljson.util.StructuralEquality;
+import io.github.spartatech.sqljson.vo.JsonQueryClause;
+import io.github.spartatech.sqljson.vo.ResultRow;
+import io.github.spartatech.sqljson.vo.ResultRowCursor;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLSyntaxErrorException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Single execution of a query plan.
+ * Rows are produced on demand: each one is pulled from the table cursor through filter and projection
+ * only when requested, so consumers pay only for the rows they read.
+ * Ordered queries read all rows before producing the first one; when limited, only the top rows
+ * are kept while reading, in a bounded heap. Otherwise the table stops being read, and the source is
+ * released, as soon as the limit is reached.
+ * Holds all the state of the execution, so it must not be shared between threads.
+ */
+public class QueryExecution implements ResultRowCursor {
+    private static final Logger log = LoggerFactory.getLogger(QueryExecution.class);
+
+    /**
+     * Partitions the table is split in for streams, enough for parallel streams to balance the work between threads.
+     */
+    private static final int STREAM_PARTITIONS = Math.max(1, ForkJoinPool.getCommonPoolParallelism()) * 4;
+    private static final int STREAM_MINIMUM_SIZE = 1024;
+
+    private final Iterator<ProjectedRow> projectedRows;
+    private final Closeable resources;
+    private final Set<ResultRow> distinctRows;
+    private final RowOrdering ordering;
+    private final long limit;
+    private final long offset;
+
+    private LinkedHashSet<String> header;
+    private Iterator<ResultRow> sortedRows;
+    private ResultRow next;
+    private long produced;
+    private long skipped;
+    private boolean sourceReleased;
+    private boolean closed;
+
+    private QueryExecution(Iterator<ProjectedRow> projectedRows, Closeable resources, QueryPlan plan, RowOrdering ordering) {
+        this.projectedRows = projectedRows;
+        this.resources = resources;
+        this.distinctRows = plan.getQuery().isDistinctResults() ? new HashSet<>() : null;
+        this.ordering = ordering;
+        this.limit = plan.getQuery().getLimit() == null ? Long.MAX_VALUE : plan.getQuery().getLimit();
+        this.offset = plan.getQuery().getOffset();
+    }
+
+    /**
+     * Number of rows that must be read, including the ones skipped by the offset.
+     *
+     * @param plan plan being executed
+     * @return rows needed, Long.MAX_VALUE when all rows are needed
+     */
+    private static long rowsNeeded(QueryPlan plan) {
+        final Long limit = plan.getQuery().getLimit();
+        return rowsNeeded(limit == null ? Long.MAX_VALUE : limit, plan.getQuery().getOffset());
+    }
+
+    private static long rowsNeeded(long limit, long offset) {
+        return limit > Long.MAX_VALUE - offset ? Long.MAX_VALUE : limit + offset;
+    }
+
+    /**
+     * Starts the execution, opening the table.
+     *
+     * @param source source of the table
+     * @param plan plan to be executed
+     * @param config configurations
+     * @return execution, must be closed after use
+     * @throws IOException in case the source cannot be read
+     * @throws SQLSyntaxErrorException in case selectors are invalid
+     */
+    public static QueryExecution start(TableSource source, QueryPlan plan, SqlJsonConfig config) throws IOException, SQLSyntaxErrorException {
+        final RowProjector projector = new RowProjector(plan.getQuery(), config);
+        log.debug("Starting execution of: {}", plan);
+        final TableCursor elements = aggregate(source.open(plan), plan);
+        final RowOrdering ordering = ordering(elements, plan);
+        return new QueryExecution(new FilteredRows(elements, rowFilter(elements, plan), projector, ordering), elements, plan, ordering);
+    }
+
+    /**
+     * Ordering the rows still need, none when the table is read in the order of the query.
+     *
+     * @param elements elements of the table
+     * @param plan plan being executed
+     * @return ordering, null when rows are not sorted
+     */
+    private static RowOrdering ordering(TableCursor elements, QueryPlan plan) {
+        if (plan.getOrdering() != null && elements.isOrdered()) {
+            log.debug("Elements already ordered, rows are not sorted");
+            return null;
+        }
+        return plan.getOrdering();
+    }
+
+    /**
+     * Wraps the table with the aggregation, for queries that aggregate.
+     *
+     * @param elements elements of the table
+     * @param plan plan being executed
+     * @return elements to be projected
+     */
+    private static TableCursor aggregate(TableCursor elements, QueryPlan plan) {
+        return plan.getAggregation() == null ? elements : plan.getAggregation().aggregate(elements, whereFilter(elements, plan));
+    }
+
+    /**
+     * Filter of the elements to be projected, the having clause when the query aggregates,
+     * as the where clause is applied by the aggregation.
+     *
+     * @param elements elements to be projected
+     * @param plan plan being executed
+     * @return filter
+     */
+    private static RowFilter rowFilter(TableCursor elements, QueryPlan plan) {
+        return plan.getAggregation() == null ? whereFilter(elements, plan) : plan.getHaving();
+    }
+
+    /**
+     * Where clause, unless the source already applied it.
+     */
+    private static RowFilter whereFilter(TableCursor elements, QueryPlan plan) {
+        return elements.isFiltered() ? RowFilter.ACCEPT_ALL : plan.getFilter();
+    }
+
+    /**
+     * Starts the execution scanning the table in parallel.
+     * The table is split in partitions which are filtered and projected concurrently on the configured pool,
+     * results are merged in the order of the table, so they are the same as the sequential execution.
+     * Only as many partitions as the pool runs are read at once, the next one is submitted as each is merged;
+     * for ordered queries that are limited, only the top rows of each partition are kept.
+     * Tables smaller than the configured threshold, and queries that aggregate, are scanned sequentially.
+     *
+     * @param source source of the table
+     * @param plan plan to be executed
+     * @param config configurations
+     * @return execution, must be closed after use
+     * @throws IOException in case the source cannot be read
+     * @throws SQLSyntaxErrorException in case selectors are invalid
+     */
+    public static QueryExecution startParallel(TableSource source, QueryPlan plan, SqlJsonConfig config) throws IOException, SQLSyntaxErrorException {
+        if (plan.getAggregation() != null) {
+            log.debug("Aggregations are executed sequentially: {}", plan);
+            return start(source, plan, config);
+        }
+        final RowProjector projector = new RowProjector(plan.getQuery(), config);
+        final List<TableSource.TablePartition> partitions = source.split(plan, config.getParallelism(), config.getParallelThreshold());
+        if (partitions.size() == 1) {
+            log.debug("Starting sequential execution of: {}", plan);
+            final TableCursor elements = partitions.get(0).open();
+            final RowOrdering ordering = ordering(elements, plan);
+            return new QueryExecution(new FilteredRows(elements, whereFilter(elements, plan), projector, ordering), elements, plan, ordering);
+        }
+
+        log.debug("Starting parallel execution of: {}, with {} partitions", plan, partitions.size());
+        // Without ordering the rows needed are the first ones of the table, so each partition
+        // can stop after them, and the partitions after the rows are found are not needed
+        final long partitionLimit = plan.getOrdering() == null ? rowsNeeded(plan) : Long.MAX_VALUE;
+        // Ordered and limited, only the top rows of each partition can be among the top rows of the table;
+        // distinct rows are kept whole, as the first of the duplicated rows in the table is the one kept
+        final long topRows = plan.getOrdering() != null && !plan.getQuery().isDistinctResults() ? rowsNeeded(plan) : Long.MAX_VALUE;
+        final TopRows top = topRows < Integer.MAX_VALUE ? new TopRows(plan.getOrdering(), topRows) : null;
+
+        // Partitions are submitted as the previous ones are merged, so only as many as the pool runs are read at once
+        final Iterator<TableSource.TablePartition> pending = partitions.iterator();
+        final Deque<ForkJoinTask<List<ProjectedRow>>> running = new ArrayDeque<>();
+        final List<ProjectedRow> merged = new ArrayList<>();
+        try {
+            while (running.size() < Math.max(1, config.getParallelism()) && pending.hasNext()) {
+                running.add(submit(pending.next(), plan, projector, Math.min(partitionLimit, topRows), config));
+            }
+            while (!running.isEmpty()) {
+                final List<ProjectedRow> rows = running.poll().get();
+                if (pending.hasNext()) {
+                    running.add(submit(pending.next(), plan, projector, Math.min(partitionLimit, topRows), config));
+                }
+                if (top != null) {
+                    rows.forEach(top::add);
+                    continue;
+                }
+                merged.addAll(rows);
+                if (!plan.getQuery().isDistinctResults() && merged.size() >= partitionLimit) {
+                    log.debug("Limit reached, cancelling remaining partitions");
+                    running.forEach(remaining -> remaining.cancel(true));
+                    break;
+                }
+            }
+        } catch (ExecutionException e) {
+            running.forEach(task -> task.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw ExceptionWrapper.of(e);
+        } catch (InterruptedException e) {
+            running.forEach(task -> task.cancel(true));
+            Thread.currentThread().interrupt();
+            throw ExceptionWrapper.of(e);
+        }
+        final List<ProjectedRow> result = top == null ? merged : top.inTableOrder();
+        return new QueryExecution(result.iterator(), () -> { }, plan, plan.getOrdering());
+    }
+
+    private static ForkJoinTask<List<ProjectedRow>> submit(TableSource.TablePartition partition, QueryPlan plan,
+                                                          RowProjector projector, long maximumRows, SqlJsonConfig config) {
+        return config.getParallelExecutor().submit(() -> scanPartition(partition, plan, projector, maximumRows));
+    }
+
+    /**
+     * Streams the rows of the query. Rows are produced as the stream is consumed, and short-circuiting operations
+     * stop reading the table. Queries that only filter and project columns stream over the partitions of the table,
+     * so parallel streams filter and project them concurrently; any other query streams a sequential execution,
+     * as it needs the rows before it in the table. The stream must be closed in case it's not consumed until the end.
+     *
+     * @param source source of the table
+     * @param plan plan to be executed
+     * @param config configurations
+     * @return sequential stream of the rows
+     * @throws IOException in case the source cannot be read
+     * @throws SQLSyntaxErrorException in case selectors are invalid
+     */
+    public static Stream<ResultRow> stream(TableSource source, QueryPlan plan, SqlJsonConfig config) throws IOException, SQLSyntaxErrorException {
+        if (!isPerElement(plan)) {
+            final QueryExecution execution = start(source, plan, config);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(execution, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(execution::closeUnchecked);
+        }
+        final RowProjector projector = new RowProjector(plan.getQuery(), config);
+        final List<TableSource.TablePartition> partitions = source.split(plan, STREAM_PARTITIONS, STREAM_MINIMUM_SIZE);
+        log.debug("Streaming {} partitions of: {}", partitions.size(), plan);
+        final Set<TableCursor> openCursors = ConcurrentHashMap.newKeySet();
+        return StreamSupport.stream(new RowSpliterator(partitions, 0, partitions.size(), plan, projector, openCursors), false)
+                .onClose(() -> openCursors.forEach(RowSpliterator::close));
+    }
+
+    /**
+     * Whether every row depends only on its own element: no aggregation, ordering, distinct, limit or offset.
+     * Star selectors are excluded too, as the columns of the first row define the columns of all others.
+     */
+    private static boolean isPerElement(QueryPlan plan) {
+        final JsonQueryClause query = plan.getQuery();
+        return plan.getAggregation() == null && plan.getOrdering() == null && !query.isDistinctResults()
+                && query.getLimit() == null && query.getOffset() == 0
+                && query.getReturningFields().stream().noneMatch(AllColumns.class::isInstance);
+    }
+
+    private void closeUnchecked() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw ExceptionWrapper.of(e);
+        }
+    }
+
+    /**
+     * Filters and projects all elements of a partition.
+     *
+     * Duplicated rows of the partition are dropped for distinct queries, the first one is kept.
+     * For ordered queries that are limited only the top rows are kept, in a bounded heap, while all rows are scanned.
+     *
+     * @param partition partition to be scanned
+     * @param plan plan being executed
+     * @param projector selected columns
+     * @param maximumRows partition stops being scanned after this number of rows, or keeps only the top rows when ordered
+     * @return projected rows kept by the filter, in the partition order
+     */
+    private static List<ProjectedRow> scanPartition(TableSource.TablePartition partition, QueryPlan plan,
+                                                    RowProjector projector, long maximumRows) {
+        final List<ProjectedRow> result = new ArrayList<>();
+        final TopRows top = plan.getOrdering() != null && maximumRows < Integer.MAX_VALUE
+                ? new TopRows(plan.getOrdering(), maximumRows) : null;
+        final Set<ProjectedRowKey> distinctRows = plan.getQuery().isDistinctResults() ? new HashSet<>() : null;
+        try (TableCursor elements = partition.open()) {
+            final FilteredRows rows = new FilteredRows(elements, plan.getFilter(), projector, plan.getOrdering());
+            while ((top != null || result.size() < maximumRows) && rows.hasNext()) {
+                final ProjectedRow row = rows.next();
+                if (top != null) {
+                    top.add(row);
+                } else if (distinctRows == null || distinctRows.add(new ProjectedRowKey(row.columns))) {
+                    result.add(row);
+                }
+            }
+        } catch (IOException e) {
+            throw ExceptionWrapper.of(e);
+        }
+        return top == null ? result : top.inTableOrder();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (closed || produced >= limit) {
+            return false;
+        }
+        if (ordering == null) {
+            while (next == null && projectedRows.hasNext()) {
+                final ResultRow row = toRow(projectedRows.next().columns);
+                if (distinctRows == null || distinctRows.add(row)) {
+                    if (skipped < offset) {
+                        skipped++;
+                    } else {
+                        next = row;
+                    }
+                }
+            }
+        } else {
+            if (sortedRows == null) {
+                sortedRows = sortRows();
+                releaseSource();
+            }
+            if (sortedRows.hasNext()) {
+                next = sortedRows.next();
+            }
+        }
+        if (next == null || ++produced >= limit) {
+            releaseSource();
+        }
+        return next != null;
+    }
+
+    /**
+     * Closes the source once no more rows are needed from it, so streams stop being read.
+     */
+    private void releaseSource() {
+        if (!sourceReleased) {
+            sourceReleased = true;
+            try {
+                resources.close();
+            } catch (IOException e) {
+                throw ExceptionWrapper.of(e);
+            }
+        }
+    }
+
+    /**
+     * Reads all rows and sorts them. When the query is limited only the top rows are kept,
+     * in a heap with the worst of them on top. Rows with the same keys keep the table order.
+     * Rows before the offset are dropped.
+     *
+     * @return sorted rows
+     */
+    private Iterator<ResultRow> sortRows() {
+        final Comparator<SortedRow> comparator = Comparator
+                .comparing((SortedRow row) -> row.keys, ordering)
+                .thenComparingLong(row -> row.sequence);
+        final long needed = rowsNeeded(limit, offset);
+        final boolean bounded = needed < Integer.MAX_VALUE;
+        final PriorityQueue<SortedRow> top = bounded ? new PriorityQueue<>(comparator.reversed()) : null;
+        final List<SortedRow> all = bounded ? null : new ArrayList<>();
+
+        long sequence = 0;
+        while (projectedRows.hasNext()) {
+            final ProjectedRow projected = projectedRows.next();
+            final ResultRow row = toRow(projected.columns);
+            if (distinctRows != null && !distinctRows.add(row)) {
+                continue;
+            }
+            final SortedRow sorted = new SortedRow(row, projected.sortKeys, sequence++);
+            if (!bounded) {
+                all.add(sorted);
+            } else if (top.size() < needed) {
+                top.add(sorted);
+            } else if (comparator.compare(sorted, top.peek()) < 0) {
+                top.poll();
+                top.add(sorted);
+            }
+        }
+
+        final List<SortedRow> result = bounded ? new ArrayList<>(top) : all;
+        result.sort(comparator);
+        log.debug("Sorted {} rows", result.size());
+        return result.stream().skip(offset).map(row -> row.row).iterator();
+    }
+
+    @Override
+    public ResultRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final ResultRow result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public LinkedHashSet<String> getHeader() {
+        if (header == null) {
+            hasNext();
+        }
+        return header == null ? new LinkedHashSet<>() : header;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            next = null;
+            if (!sourceReleased) {
+                sourceReleased = true;
+                resources.close();
+            }
+        }
+    }
+
+    /**
+     * Converts the projected columns into a row, columns are ordered by the header,
+     * which is defined by the first row produced.
+     *
+     * @param columns projected columns
+     * @return ResultRow
+     */
+    private ResultRow toRow(LinkedHashMap<String, JsonNode> columns) {
+        if (header == null) {
+            header = new LinkedHashSet<>(columns.keySet());
+        }
+        final List<JsonNode> row = new ArrayList<>(header.size());
+        header.forEach(colName -> row.add(columns.get(colName)));
+        return new ResultRow(row);
+    }
+
+    /**
+     * Selected columns of an element, with its sort keys for ordered queries.
+     */
+    private static final class ProjectedRow {
+        final LinkedHashMap<String, JsonNode> columns;
+        final Object[] sortKeys;
+
+        ProjectedRow(LinkedHashMap<String, JsonNode> columns, Object[] sortKeys) {
+            this.columns = columns;
+            this.sortKeys = sortKeys;
+        }
+    }
+
+    /**
+     * Row waiting to be sorted, the sequence keeps the table order between rows with the same keys.
+     */
+    private static final class SortedRow {
+        final ResultRow row;
+        final Object[] keys;
+        final long sequence;
+
+        SortedRow(ResultRow row, Object[] keys, long sequence) {
+            this.row = row;
+            this.keys = keys;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Projected rows with the lowest sort keys, in a heap with the worst of them on top.
+     * Rows with the same keys keep the order they were added in, the order of the table.
+     */
+    private static final class TopRows {
+        private final Comparator<SequencedRow> comparator;
+        private final PriorityQueue<SequencedRow> heap;
+        private final long size;
+        private long sequence;
+
+        TopRows(RowOrdering ordering, long size) {
+            this.comparator = Comparator
+                    .comparing((SequencedRow row) -> row.row.sortKeys, ordering)
+                    .thenComparingLong(row -> row.sequence);
+            this.heap = new PriorityQueue<>(comparator.reversed());
+            this.size = size;
+        }
+
+        void add(ProjectedRow row) {
+            final SequencedRow sequenced = new SequencedRow(row, sequence++);
+            if (heap.size() < size) {
+                heap.add(sequenced);
+            } else if (size > 0 && comparator.compare(sequenced, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(sequenced);
+            }
+        }
+
+        /**
+         * Rows kept, in the order they were added, so they can be sorted again with the rows of other partitions.
+         *
+         * @return rows
+         */
+        List<ProjectedRow> inTableOrder() {
+            final List<SequencedRow> rows = new ArrayList<>(heap);
+            rows.sort(Comparator.comparingLong(row -> row.sequence));
+            final List<ProjectedRow> result = new ArrayList<>(rows.size());
+            rows.forEach(row -> result.add(row.row));
+            return result;
+        }
+    }
+
+    private static final class SequencedRow {
+        final ProjectedRow row;
+        final long sequence;
+
+        SequencedRow(ProjectedRow row, long sequence) {
+            this.row = row;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Pulls elements from the cursor, producing the projected columns of the ones kept by the filter.
+     * Keeps the types inferred for the columns of the cursor it reads.
+     */
+    private static class FilteredRows implements Iterator<ProjectedRow> {
+        private final TableCursor elements;
+        private final RowFilter filter;
+        private final RowProjector projector;
+        private final RowOrdering ordering;
+        private final TypeHints hints = new TypeHints();
+        private ProjectedRow next;
+
+        FilteredRows(TableCursor elements, RowFilter filter, RowProjector projector, RowOrdering ordering) {
+            this.elements = elements;
+            this.filter = filter;
+            this.projector = projector;
+            this.ordering = ordering;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && elements.hasNext()) {
+                final JsonNode element = elements.next();
+                if (filter.test(element, hints)) {
+                    final LinkedHashMap<String, JsonNode> columns = projector.project(element);
+                    next = new ProjectedRow(columns, ordering == null ? null : ordering.keysOf(element, columns, hints));
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public ProjectedRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final ProjectedRow result = next;
+            next = null;
+            return result;
+        }
+    }
+
+    /**
+     * Rows of a range of partitions of the table, read one partition at a time.
+     * Splits by handing the first half of the partitions not yet read to a new spliterator,
+     * the size is estimated from the elements of the partitions.
+     */
+    private static final class RowSpliterator implements Spliterator<ResultRow> {
+        private final List<TableSource.TablePartition> partitions;
+        private final QueryPlan plan;
+        private final RowProjector projector;
+        private final Set<TableCursor> openCursors;
+        private int index;
+        private final int fence;
+        private TableCursor elements;
+        private FilteredRows rows;
+
+        RowSpliterator(List<TableSource.TablePartition> partitions, int index, int fence, QueryPlan plan,
+                       RowProjector projector, Set<TableCursor> openCursors) {
+            this.partitions = partitions;
+            this.index = index;
+            this.fence = fence;
+            this.plan = plan;
+            this.projector = projector;
+            this.openCursors = openCursors;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super ResultRow> action) {
+            while (rows == null || !rows.hasNext()) {
+                if (rows != null) {
+                    openCursors.remove(elements);
+                    close(elements);
+                    rows = null;
+                }
+                if (index >= fence) {
+                    return false;
+                }
+                try {
+                    elements = partitions.get(index++).open();
+                } catch (IOException e) {
+                    throw ExceptionWrapper.of(e);
+                }
+                openCursors.add(elements);
+                rows = new FilteredRows(elements, whereFilter(elements, plan), projector, null);
+            }
+            action.accept(new ResultRow(new ArrayList<>(rows.next().columns.values())));
+            return true;
+        }
+
+        @Override
+        public Spliterator<ResultRow> trySplit() {
+            final int middle = (index + fence) >>> 1;
+            if (middle <= index) {
+                return null;
+            }
+            final RowSpliterator prefix = new RowSpliterator(partitions, index, middle, plan, projector, openCursors);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = 0;
+            for (int i = index; i < fence; i++) {
+                final long partition = partitions.get(i).estimateSize();
+                if (partition == Long.MAX_VALUE) {
+                    return Long.MAX_VALUE;
+                }
+                size += partition;
+            }
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.NONNULL;
+        }
+
+        static void close(TableCursor cursor) {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                throw ExceptionWrapper.of(e);
+            }
+        }
+    }
+
+    /**
+     * Identity of a projected row before the header is known: column names in order and their values.
+     */
+    private static final class ProjectedRowKey {
+        private final LinkedHashMap<String, JsonNode> columns;
+        private final int hash;
+
+        ProjectedRowKey(LinkedHashMap<String, JsonNode> columns) {
+            this.columns = columns;
+            int result = 1;
+            for (Map.Entry<String, JsonNode> column : columns.entrySet()) {
+                result = 31 * (31 * result + column.getKey().hashCode()) + StructuralEquality.hash(column.getValue());
+            }
+            this.hash = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ProjectedRowKey)) return false;
+            final ProjectedRowKey other = (ProjectedRowKey) o;
+            if (hash != other.hash || columns.size() != other.columns.size()) {
+                return false;
+            }
+            final Iterator<Map.Entry<String, JsonNode>> otherColumns = other.columns.entrySet().iterator();
+            for (Map.Entry<String, JsonNode> column : columns.entrySet()) {
+                final Map.Entry<String, JsonNode> otherColumn = otherColumns.next();
+                if (!column.getKey().equals(otherColumn.getKey())
+                        || !StructuralEquality.equivalent(column.getValue(), otherColumn.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
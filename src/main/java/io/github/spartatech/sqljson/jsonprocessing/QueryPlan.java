@@ -0,0 +1,133 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import io.github.spartatech.sqljson.sqlparse.SqlParser;
+import io.github.spartatech.sqljson.vo.JsonQueryClause;
+
+import java.sql.SQLException;
+
+/**
+ * Parsed representation of a query, ready to be executed against any Json.
+ * The where clause, the aggregation, the ordering and the fields referenced are compiled once, when the plan is created.
+ * A plan does not hold any state from an execution, so the same instance
+ * can be shared by multiple threads and reused for as many executions as needed.
+ */
+public class QueryPlan {
+
+    private final String sql;
+    private final JsonQueryClause query;
+    private final RowFilter filter;
+    private final RowOrdering ordering;
+    private final Aggregation aggregation;
+    private final RowFilter having;
+    private final FieldSelection fieldSelection;
+    private final TokenFilter tokenFilter;
+
+    private QueryPlan(String sql, JsonQueryClause query) throws SQLException {
+        this.sql = sql;
+        this.query = query;
+        final TypeHints.Slots slots = new TypeHints.Slots();
+        this.filter = WhereClauseCompiler.compile(query.getFilters(), slots);
+        this.ordering = RowOrdering.compile(query.getOrderByElements(), slots);
+        this.aggregation = Aggregation.compile(query, slots);
+        this.having = WhereClauseCompiler.compileHaving(query.getHaving(), slots);
+        this.fieldSelection = FieldSelection.of(query);
+        this.tokenFilter = TokenFilter.of(filter);
+    }
+
+    /**
+     * Parses the SQL and creates the plan for it.
+     *
+     * @param sql query to be parsed
+     * @return QueryPlan
+     * @throws SQLException in case parse fails, or the query uses a feature not supported
+     */
+    public static QueryPlan parse(String sql) throws SQLException {
+        return new QueryPlan(sql, new SqlParser(sql).parseQuery());
+    }
+
+    /**
+     * Creates a plan from an already parsed query.
+     *
+     * @param query parsed query
+     * @return QueryPlan
+     * @throws SQLException in case the query is invalid
+     */
+    public static QueryPlan of(JsonQueryClause query) throws SQLException {
+        return new QueryPlan(null, query);
+    }
+
+    /**
+     * SQL this plan was parsed from, null in case the plan was created from a parsed query.
+     *
+     * @return sql
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    public JsonQueryClause getQuery() {
+        return query;
+    }
+
+    /**
+     * Compiled where clause.
+     *
+     * @return filter, accepting all elements in case query has no where clause
+     */
+    public RowFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Compiled order by clause.
+     *
+     * @return ordering, null in case query is not ordered
+     */
+    RowOrdering getOrdering() {
+        return ordering;
+    }
+
+    /**
+     * Compiled group by and aggregate functions.
+     *
+     * @return aggregation, null in case query does not aggregate
+     */
+    Aggregation getAggregation() {
+        return aggregation;
+    }
+
+    /**
+     * Compiled having clause, applied to the elements produced by the aggregation.
+     *
+     * @return filter, accepting all groups in case query has no having clause
+     */
+    RowFilter getHaving() {
+        return having;
+    }
+
+    /**
+     * Fields of the elements referenced by the query.
+     *
+     * @return selection, null in case the whole element is needed
+     */
+    FieldSelection getFieldSelection() {
+        return fieldSelection;
+    }
+
+    /**
+     * Conditions of the where clause evaluated while elements are read from a stream.
+     *
+     * @return token filter, null in case no condition can be evaluated on a single field
+     */
+    TokenFilter getTokenFilter() {
+        return tokenFilter;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryPlan{" +
+                "sql='" + sql + '\'' +
+                ", query=" + query +
+                '}';
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of query plans, keyed by the SQL text.
+ * Avoids parsing the same query again every time it is executed.
+ * Safe to be shared by multiple threads and by multiple SqlJson instances.
+ */
+public class QueryPlanCache {
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanCache.class);
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 256;
+
+    private static final QueryPlanCache SHARED = new QueryPlanCache(DEFAULT_MAXIMUM_SIZE);
+
+    private final int maximumSize;
+    private final LinkedHashMap<String, QueryPlan> plans;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor.
+     *
+     * @param maximumSize maximum number of plans kept, least recently used ones are evicted first
+     */
+    public QueryPlanCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Plan cache size must be greater than zero, got " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, QueryPlan> eldest) {
+                if (size() > QueryPlanCache.this.maximumSize) {
+                    log.trace("Evicting plan for query: {}", eldest.getKey());
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cache for the whole application, for the instances configured with it.
+     *
+     * @return shared cache
+     */
+    public static QueryPlanCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Retrieves the plan for the query, parsing it in case it is not in the cache yet.
+     * Queries that fail to parse are not cached.
+     *
+     * @param sql query
+     * @return QueryPlan
+     * @throws SQLException in case parse fails
+     */
+    public QueryPlan get(String sql) throws SQLException {
+        QueryPlan plan;
+        synchronized (plans) {
+            plan = plans.get(sql);
+        }
+        if (plan != null) {
+            hits.increment();
+            return plan;
+        }
+
+        misses.increment();
+        final QueryPlan parsed = QueryPlan.parse(sql);
+        synchronized (plans) {
+            plan = plans.putIfAbsent(sql, parsed);
+        }
+        return plan == null ? parsed : plan;
+    }
+
+    /**
+     * Removes all plans from the cache. Counters are kept.
+     */
+    public void clear() {
+        synchronized (plans) {
+            plans.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (plans) {
+            return plans.size();
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryPlanCache{" +
+                "size=" + size() +
+                ", maximumSize=" + maximumSize +
+                ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", evictions=" + getEvictionCount() +
+                '}';
+    }
+}
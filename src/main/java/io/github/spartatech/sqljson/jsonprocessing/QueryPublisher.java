@@ -0,0 +1,158 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+import io.github.spartatech.sqljson.vo.ResultRow;
+import io.github.spartatech.sqljson.vo.ResultRowCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the rows of a query as they pass filter and projection.
+ * Every subscription executes the query again, pulling rows from the execution only as the subscriber requests them,
+ * so a slow subscriber throttles the scan, and cancelling the subscription stops it and releases the source.
+ * Signals of a subscription are delivered one at a time, on the executor.
+ */
+public class QueryPublisher implements Flow.Publisher<ResultRow> {
+    private static final Logger log = LoggerFactory.getLogger(QueryPublisher.class);
+
+    private final ExecutionStarter starter;
+    private final Executor executor;
+
+    /**
+     * Constructor.
+     *
+     * @param starter starts a new execution of the query, for each subscription
+     * @param executor executor delivering the signals
+     */
+    public QueryPublisher(ExecutionStarter starter, Executor executor) {
+        this.starter = starter;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ResultRow> subscriber) {
+        final RowSubscription subscription = new RowSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    /**
+     * Starts the execution of the query.
+     */
+    @FunctionalInterface
+    public interface ExecutionStarter {
+        ResultRowCursor start() throws Exception;
+    }
+
+    /**
+     * Emits rows while there is demand. The work in progress counter makes sure a single thread
+     * emits at a time: requests made while rows are emitted, including from inside onNext,
+     * are picked up by the thread already emitting.
+     */
+    private class RowSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super ResultRow> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger workInProgress = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+        private ResultRowCursor rows;
+        private boolean done;
+
+        RowSubscription(Flow.Subscriber<? super ResultRow> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested rows must be positive, got " + n);
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (workInProgress.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            while (true) {
+                emit();
+                missed = workInProgress.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void emit() {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                log.debug("Subscription cancelled");
+                finish();
+                return;
+            }
+            if (invalidRequest != null) {
+                finish();
+                subscriber.onError(invalidRequest);
+                return;
+            }
+            try {
+                if (rows == null) {
+                    rows = starter.start();
+                }
+                while (demand.get() > 0 && !cancelled) {
+                    if (!rows.hasNext()) {
+                        finish();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    final ResultRow row = rows.next();
+                    demand.decrementAndGet();
+                    subscriber.onNext(row);
+                }
+                if (cancelled) {
+                    finish();
+                }
+            } catch (ExceptionWrapper e) {
+                fail(e.unwrap());
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+
+        private void fail(Throwable error) {
+            finish();
+            subscriber.onError(error);
+        }
+
+        private void finish() {
+            done = true;
+            if (rows != null) {
+                try {
+                    rows.close();
+                } catch (IOException e) {
+                    log.warn("Failure releasing the query execution", e);
+                }
+            }
+        }
+    }
+}
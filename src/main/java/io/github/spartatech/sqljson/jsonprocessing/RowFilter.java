@@ -0,0 +1,26 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Compiled condition of a where clause, evaluated for each element of the table.
+ * Implementations must not keep state from the evaluation of an element, so the same
+ * filter can be reused for every element and by multiple threads; state of an execution
+ * is kept in the {@link TypeHints} given to each evaluation.
+ */
+@FunctionalInterface
+public interface RowFilter {
+
+    RowFilter ACCEPT_ALL = (element, hints) -> true;
+    RowFilter REJECT_ALL = (element, hints) -> false;
+
+    /**
+     * Evaluates the condition against the element.
+     * Failures are thrown as {@link io.github.spartatech.sqljson.exception.ExceptionWrapper}.
+     *
+     * @param element element of the table
+     * @param hints types inferred for the columns during the execution
+     * @return true -> element is kept, false -> element is filtered out
+     */
+    boolean test(JsonNode element, TypeHints hints);
+}
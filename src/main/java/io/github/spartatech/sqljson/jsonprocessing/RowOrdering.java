@@ -0,0 +1,237 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+import io.github.spartatech.sqljson.exception.ExpressionNotSupportedException;
+import io.github.spartatech.sqljson.util.ColumnPath;
+import io.github.spartatech.sqljson.util.ColumnTypeHint;
+import io.github.spartatech.sqljson.util.GeneralConverters;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+
+import java.sql.SQLException;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Compiled ORDER BY clause.
+ * Sort keys are extracted once for each row, as native values, and rows are compared on them.
+ * Columns are taken from the selected columns when the name matches a selector or alias,
+ * otherwise from the element; numbers in ORDER BY are positions of the selected columns.
+ * Aggregate functions are read from the elements produced by the aggregation.
+ * Values are compared by type: nulls, booleans, numbers, dates and times, texts, and then anything else.
+ * Nulls come first on ascending order and last on descending, unless NULLS FIRST/LAST is given.
+ */
+final class RowOrdering implements Comparator<Object[]> {
+
+    private final List<SortKey> keys;
+
+    private RowOrdering(List<SortKey> keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Compiles the ORDER BY elements.
+     *
+     * @param elements ORDER BY elements
+     * @param slots allocator of the type hints of the plan
+     * @return ordering, null when the query is not ordered
+     */
+    static RowOrdering compile(List<OrderByElement> elements, TypeHints.Slots slots) {
+        if (elements == null || elements.isEmpty()) {
+            return null;
+        }
+        final List<SortKey> keys = new ArrayList<>(elements.size());
+        for (OrderByElement element : elements) {
+            final ColumnPath column = element.getExpression() instanceof Column
+                    ? ColumnPath.of(((Column) element.getExpression()).getFullyQualifiedName()) : null;
+            keys.add(new SortKey(compileKey(element.getExpression(), slots), column, element.isAsc(), nullsFirst(element)));
+        }
+        return new RowOrdering(keys);
+    }
+
+    private static boolean nullsFirst(OrderByElement element) {
+        if (element.getNullOrdering() == OrderByElement.NullOrdering.NULLS_FIRST) {
+            return true;
+        } else if (element.getNullOrdering() == OrderByElement.NullOrdering.NULLS_LAST) {
+            return false;
+        }
+        return element.isAsc();
+    }
+
+    private static KeyExtractor compileKey(Expression expression, TypeHints.Slots slots) {
+        if (expression instanceof Column) {
+            final String name = ((Column) expression).getFullyQualifiedName();
+            final ColumnPath path = ColumnPath.of(name);
+            final int slot = slots.allocate();
+            return (element, row, hints) -> {
+                final JsonNode value = row.containsKey(name) ? row.get(name) : path.resolve(element);
+                return toNative(value, hints.get(slot));
+            };
+        }
+        if (expression instanceof LongValue) {
+            final long position = ((LongValue) expression).getValue();
+            final int slot = slots.allocate();
+            return (element, row, hints) -> {
+                if (position < 1 || position > row.size()) {
+                    throw ExceptionWrapper.of(new SQLException("Order by position " + position + " is not in select list"));
+                }
+                final Iterator<JsonNode> columns = row.values().iterator();
+                for (int i = 1; i < position; i++) {
+                    columns.next();
+                }
+                return toNative(columns.next(), hints.get(slot));
+            };
+        }
+        if (expression instanceof Function && !AggregateFunction.isAggregate((Function) expression)) {
+            throw new ExpressionNotSupportedException("Function order by (" + expression + ")");
+        }
+
+        final ValueResolver resolver = WhereClauseCompiler.compileValue(expression, slots);
+        return (element, row, hints) -> {
+            try {
+                return resolver.resolve(element, hints);
+            } catch (SQLException e) {
+                throw ExceptionWrapper.of(e);
+            }
+        };
+    }
+
+    private static Object toNative(JsonNode value, ColumnTypeHint hint) {
+        if (value == null || value.isNull() || value.isMissingNode()) {
+            return null;
+        }
+        if (value.isBoolean()) {
+            return value.booleanValue();
+        }
+        if (value.isNumber() && !value.isIntegralNumber()) {
+            return value.doubleValue();
+        }
+        if (value.isIntegralNumber() && !value.canConvertToLong()) {
+            return value.doubleValue();
+        }
+        return GeneralConverters.convertJsonNodeToNative(value, hint);
+    }
+
+    /**
+     * Column the rows are ordered by, when ordered by a single column.
+     *
+     * @return column, null when ordered by more than one key, or by anything other than a column
+     */
+    ColumnPath singleColumn() {
+        return keys.size() == 1 ? keys.get(0).column : null;
+    }
+
+    /**
+     * Direction of the first key.
+     *
+     * @return true -> ascending
+     */
+    boolean isAscending() {
+        return keys.get(0).ascending;
+    }
+
+    /**
+     * Extracts the sort keys of a row.
+     *
+     * @param element element of the table
+     * @param row selected columns of the element
+     * @param hints types inferred for the columns during the execution
+     * @return sort keys
+     */
+    Object[] keysOf(JsonNode element, LinkedHashMap<String, JsonNode> row, TypeHints hints) {
+        final Object[] result = new Object[keys.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = keys.get(i).extractor.extract(element, row, hints);
+        }
+        return result;
+    }
+
+    @Override
+    public int compare(Object[] left, Object[] right) {
+        for (int i = 0; i < left.length; i++) {
+            final SortKey key = keys.get(i);
+            final Object l = left[i];
+            final Object r = right[i];
+            final int result;
+            if (l == null || r == null) {
+                if (l == r) {
+                    continue;
+                }
+                return (l == null) == key.nullsFirst ? -1 : 1;
+            } else {
+                result = compareValues(l, r);
+            }
+            if (result != 0) {
+                return key.ascending ? result : -result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compares two non null native values, by type first.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compareValues(Object left, Object right) {
+        final int typeOrder = Integer.compare(typeRank(left), typeRank(right));
+        if (typeOrder != 0) {
+            return typeOrder;
+        }
+        if (left instanceof Long && right instanceof Long) {
+            return Long.compare((Long) left, (Long) right);
+        }
+        if (left instanceof Number) {
+            return Double.compare(((Number) left).doubleValue(), ((Number) right).doubleValue());
+        }
+        if (left instanceof Comparable && left.getClass().equals(right.getClass())) {
+            return ((Comparable) left).compareTo(right);
+        }
+        if (left instanceof Temporal) {
+            final int classOrder = left.getClass().getName().compareTo(right.getClass().getName());
+            if (classOrder != 0) {
+                return classOrder;
+            }
+        }
+        return left.toString().compareTo(right.toString());
+    }
+
+    private static int typeRank(Object value) {
+        if (value instanceof Boolean) {
+            return 0;
+        } else if (value instanceof Number) {
+            return 1;
+        } else if (value instanceof Temporal) {
+            return 2;
+        } else if (value instanceof String) {
+            return 3;
+        }
+        return 4;
+    }
+
+    @FunctionalInterface
+    private interface KeyExtractor {
+        Object extract(JsonNode element, LinkedHashMap<String, JsonNode> row, TypeHints hints);
+    }
+
+    private static final class SortKey {
+        final KeyExtractor extractor;
+        final ColumnPath column;
+        final boolean ascending;
+        final boolean nullsFirst;
+
+        SortKey(KeyExtractor extractor, ColumnPath column, boolean ascending, boolean nullsFirst) {
+            this.extractor = extractor;
+            this.column = column;
+            this.ascending = ascending;
+            this.nullsFirst = nullsFirst;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import io.github.spartatech.sqljson.SqlJsonConfig;
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+import io.github.spartatech.sqljson.util.ColumnPath;
+import io.github.spartatech.sqljson.util.JsonUtility;
+import io.github.spartatech.sqljson.vo.JsonQueryClause;
+import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.SelectExpressionItem;
+import net.sf.jsqlparser.statement.select.SelectItem;
+
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects the columns requested by the query from an element.
+ * Star will return all fields
+ * . (dot) will return a json
+ * The selectors are compiled once, columns are resolved through their pre-split paths.
+ * Aggregate functions are read from the elements produced by the aggregation.
+ */
+public class RowProjector {
+
+    private final List<ProjectionItem> items;
+    private final boolean wholeElement;
+
+    /**
+     * Constructor.
+     *
+     * @param query query with the selectors
+     * @param config configurations
+     * @throws SQLSyntaxErrorException in case selectors are invalid
+     */
+    public RowProjector(JsonQueryClause query, SqlJsonConfig config) throws SQLSyntaxErrorException {
+        final List<SelectItem> returningFields = query.getReturningFields();
+
+        final boolean hasDot = returningFields.get(0).toString().equals("\".\"");
+        if (hasDot && returningFields.size() > 1) {
+            throw new SQLSyntaxErrorException("Selectors '.' cannot be combined with anything else");
+        }
+        this.wholeElement = hasDot;
+
+        this.items = new ArrayList<>(returningFields.size());
+        for (SelectItem field : returningFields) {
+            items.add(compile(field, config));
+        }
+    }
+
+    /**
+     * Return the selected columns for one element.
+     *
+     * @param element element to filter columns
+     * @return row, as a map of cols
+     */
+    public LinkedHashMap<String, JsonNode> project(JsonNode element) {
+        if (wholeElement) {
+            return new LinkedHashMap<>(Map.of(".", element));
+        }
+
+        final LinkedHashMap<String, JsonNode> newRow = new LinkedHashMap<>();
+        for (ProjectionItem item : items) {
+            item.project(element, newRow);
+        }
+        return newRow;
+    }
+
+    private static ProjectionItem compile(SelectItem field, SqlJsonConfig config) {
+        if (field instanceof AllColumns) {
+            return (element, row) -> row.putAll(JsonUtility.flattenJsonFields(element));
+        }
+        if (field instanceof SelectExpressionItem && ((SelectExpressionItem) field).getExpression() instanceof Column) {
+            final SelectExpressionItem item = (SelectExpressionItem) field;
+            final String fieldName = ((Column) item.getExpression()).getFullyQualifiedName();
+            final String alias = item.getAlias() != null ? item.getAlias().getName() : fieldName;
+            return new ColumnItem(alias, ColumnPath.of(fieldName), !config.isStrictResultRowExistence());
+        }
+        if (field instanceof SelectExpressionItem && ((SelectExpressionItem) field).getExpression() instanceof Function
+                && AggregateFunction.isAggregate((Function) ((SelectExpressionItem) field).getExpression())) {
+            final SelectExpressionItem item = (SelectExpressionItem) field;
+            final String name = AggregateFunction.fieldName((Function) item.getExpression());
+            final String alias = item.getAlias() != null ? item.getAlias().getName() : item.getExpression().toString();
+            return (element, row) -> row.put(alias, element.path(name).isMissingNode() ? NullNode.getInstance() : element.get(name));
+        }
+
+        // Other expressions are evaluated for each element
+        return (element, row) -> {
+            final SelectClauseExpressionEvaluator evaluator = new SelectClauseExpressionEvaluator(element, config);
+            field.accept(evaluator);
+            row.putAll(evaluator.getResult());
+        };
+    }
+
+    /**
+     * Adds the value(s) of a selector to the row.
+     */
+    @FunctionalInterface
+    private interface ProjectionItem {
+        void project(JsonNode element, LinkedHashMap<String, JsonNode> row);
+    }
+
+    /**
+     * Selector of a single column.
+     */
+    private static final class ColumnItem implements ProjectionItem {
+        private final String alias;
+        private final ColumnPath path;
+        private final boolean allowMissing;
+
+        ColumnItem(String alias, ColumnPath path, boolean allowMissing) {
+            this.alias = alias;
+            this.path = path;
+            this.allowMissing = allowMissing;
+        }
+
+        @Override
+        public void project(JsonNode element, LinkedHashMap<String, JsonNode> row) {
+            final JsonNode value = JsonUtility.findElementInJson(element, path, allowMissing);
+            if (value.isMissingNode()) {
+                throw ExceptionWrapper.of(
+                        new SQLException("Field \"" + path.getExpression() + "\" not found in the json result"));
+            }
+            row.put(alias, value);
+        }
+    }
+}
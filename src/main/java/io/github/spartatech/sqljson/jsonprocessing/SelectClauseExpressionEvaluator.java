@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import io.github.spartatech.sqljson.SqlJsonConfig;
 import io.github.spartatech.sqljson.exception.ExceptionWrapper;
 import io.github.spartatech.sqljson.exception.ExpressionNotSupportedException;
+import io.github.spartatech.sqljson.util.ColumnPath;
 import io.github.spartatech.sqljson.util.JsonUtility;
 import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
 import net.sf.jsqlparser.expression.Function;
@@ -71,7 +72,7 @@ public class SelectClauseExpressionEvaluator extends ExpressionVisitorAdapter {
         @Override
         public void visit(Column column) {
             final String fieldName = column.getFullyQualifiedName();
-            final JsonNode value = JsonUtility.findElementInJson(node, fieldName, fieldName.split("\\."), !config.isStrictResultRowExistence());
+            final JsonNode value = JsonUtility.findElementInJson(node, ColumnPath.of(fieldName), !config.isStrictResultRowExistence());
 
             if (value.isMissingNode()) {
                 throw ExceptionWrapper.of(
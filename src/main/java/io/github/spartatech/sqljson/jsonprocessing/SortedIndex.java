@@ -0,0 +1,243 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+import io.github.spartatech.sqljson.util.ColumnPath;
+import io.github.spartatech.sqljson.util.ColumnTypeHint;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import static io.github.spartatech.sqljson.util.GeneralConverters.convertJsonNodeToNative;
+
+/**
+ * Sorted index over a numeric column, answering range conditions by binary search.
+ * Keys are kept sorted in a primitive array, longs when all values of the column are integers and
+ * doubles otherwise, next to the positions of the elements holding them. Elements with the same key
+ * are kept in the order of the table, so the index also gives the elements in the order of the column.
+ * Immutable once built, can be read by multiple threads.
+ */
+final class SortedIndex {
+
+    private final long[] longKeys;
+    private final double[] doubleKeys;
+    private final int[] positions;
+    private final Class<?> type;
+
+    private SortedIndex(long[] longKeys, double[] doubleKeys, int[] positions, Class<?> type) {
+        this.longKeys = longKeys;
+        this.doubleKeys = doubleKeys;
+        this.positions = positions;
+        this.type = type;
+    }
+
+    /**
+     * Builds the index for the column.
+     * Failures are thrown as {@link ExceptionWrapper}.
+     *
+     * @param elements elements of the table
+     * @param column column indexed
+     * @return index
+     */
+    static SortedIndex build(JsonNode[] elements, ColumnPath column) {
+        final ColumnTypeHint hint = new ColumnTypeHint();
+        final long[] longs = new long[elements.length];
+        final double[] doubles = new double[elements.length];
+        boolean hasLongs = false;
+        boolean hasDoubles = false;
+        for (int i = 0; i < elements.length; i++) {
+            final Object value = convertJsonNodeToNative(column.resolve(elements[i]), hint);
+            if (value instanceof Long) {
+                hasLongs = true;
+                longs[i] = (Long) value;
+                doubles[i] = (Long) value;
+            } else if (value instanceof Double) {
+                hasDoubles = true;
+                doubles[i] = (Double) value;
+            } else {
+                throw ExceptionWrapper.of(new SQLException("Sorted index on " + column.getExpression()
+                        + " requires numeric values, got \"" + value + "\""));
+            }
+        }
+
+        final Class<?> type = hasLongs == hasDoubles ? null : (hasLongs ? Long.class : Double.class);
+        if (!hasDoubles) {
+            final int[] positions = sortPositions(longs);
+            final long[] keys = new long[positions.length];
+            for (int i = 0; i < positions.length; i++) {
+                keys[i] = longs[positions[i]];
+            }
+            return new SortedIndex(keys, null, positions, type);
+        }
+        final long[] sortable = new long[doubles.length];
+        for (int i = 0; i < doubles.length; i++) {
+            sortable[i] = sortableBits(doubles[i]);
+        }
+        final int[] positions = sortPositions(sortable);
+        final double[] keys = new double[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            keys[i] = doubles[positions[i]];
+        }
+        return new SortedIndex(null, keys, positions, type);
+    }
+
+    /**
+     * Bits of the double ordered as {@link Double#compare} orders the doubles, when compared as longs.
+     */
+    private static long sortableBits(double value) {
+        final long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Sorts the positions by their keys, positions with the same key keep the order of the table.
+     * Merge sort of the positions on primitive arrays, which is stable, so positions are never compared.
+     *
+     * @param keys key of each position
+     * @return positions in the order of the keys
+     */
+    private static int[] sortPositions(long[] keys) {
+        int[] positions = new int[keys.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        int[] buffer = new int[keys.length];
+        for (int width = 1; width < positions.length; width *= 2) {
+            for (int from = 0; from < positions.length; from += 2 * width) {
+                final int middle = Math.min(from + width, positions.length);
+                final int to = Math.min(from + 2 * width, positions.length);
+                int left = from;
+                int right = middle;
+                for (int i = from; i < to; i++) {
+                    if (left < middle && (right >= to || keys[positions[left]] <= keys[positions[right]])) {
+                        buffer[i] = positions[left++];
+                    } else {
+                        buffer[i] = positions[right++];
+                    }
+                }
+            }
+            final int[] sorted = buffer;
+            buffer = positions;
+            positions = sorted;
+        }
+        return positions;
+    }
+
+    /**
+     * Type of the values of the column.
+     *
+     * @return Long or Double, null when the column has both
+     */
+    Class<?> getType() {
+        return type;
+    }
+
+    int size() {
+        return positions.length;
+    }
+
+    /**
+     * First index in the sorted keys that is not below the bound.
+     *
+     * @param bound Long or Double
+     * @param inclusive true -> keys equal to the bound are not below it
+     * @return index in the sorted keys
+     */
+    int lowerBound(Object bound, boolean inclusive) {
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            final int compared = compareKey(middle, bound);
+            if (compared < 0 || (compared == 0 && !inclusive)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First index in the sorted keys above the bound.
+     *
+     * @param bound Long or Double
+     * @param inclusive true -> keys equal to the bound are not above it
+     * @return index in the sorted keys
+     */
+    int upperBound(Object bound, boolean inclusive) {
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            final int compared = compareKey(middle, bound);
+            if (compared < 0 || (compared == 0 && inclusive)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares the key, as the where clause compares numbers: as longs when both are integers, otherwise as doubles.
+     */
+    private int compareKey(int index, Object bound) {
+        if (longKeys != null && bound instanceof Long) {
+            final long key = longKeys[index];
+            final long value = (Long) bound;
+            return key < value ? -1 : (key == value ? 0 : 1);
+        }
+        final double key = longKeys != null ? longKeys[index] : doubleKeys[index];
+        final double value = ((Number) bound).doubleValue();
+        return key < value ? -1 : (key == value ? 0 : 1);
+    }
+
+    /**
+     * Positions of the elements in a range of the sorted keys, in the order of the table.
+     *
+     * @param from first index in the sorted keys, inclusive
+     * @param to last index in the sorted keys, exclusive
+     * @return positions
+     */
+    int[] positions(int from, int to) {
+        final int[] result = Arrays.copyOfRange(positions, from, to);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Positions of the elements in a range of the sorted keys, in the order of the keys.
+     * Elements with the same key are in the order of the table, on both directions.
+     *
+     * @param from first index in the sorted keys, inclusive
+     * @param to last index in the sorted keys, exclusive
+     * @param ascending direction
+     * @return positions
+     */
+    int[] orderedPositions(int from, int to, boolean ascending) {
+        if (ascending) {
+            return Arrays.copyOfRange(positions, from, to);
+        }
+        final int[] result = new int[Math.max(0, to - from)];
+        int written = 0;
+        int end = to;
+        while (end > from) {
+            int start = end - 1;
+            while (start > from && sameKey(start - 1, end - 1)) {
+                start--;
+            }
+            System.arraycopy(positions, start, result, written, end - start);
+            written += end - start;
+            end = start;
+        }
+        return result;
+    }
+
+    private boolean sameKey(int left, int right) {
+        return longKeys != null
+                ? longKeys[left] == longKeys[right]
+                : Double.compare(doubleKeys[left], doubleKeys[right]) == 0;
+    }
+}
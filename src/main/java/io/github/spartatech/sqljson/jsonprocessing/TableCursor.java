@@ -0,0 +1,33 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * Forward-only cursor over the elements of a table.
+ * Failures while reading are thrown as {@link io.github.spartatech.sqljson.exception.ExceptionWrapper}.
+ */
+public interface TableCursor extends Iterator<JsonNode>, Closeable {
+
+    /**
+     * Whether the elements are already in the order by of the query the cursor was opened for,
+     * so rows don't need to be sorted.
+     *
+     * @return true -> elements are ordered
+     */
+    default boolean isOrdered() {
+        return false;
+    }
+
+    /**
+     * Whether the where clause of the query the cursor was opened for was already applied to the elements,
+     * so they don't need to be filtered again.
+     *
+     * @return true -> elements are filtered
+     */
+    default boolean isFiltered() {
+        return false;
+    }
+}
@@ -0,0 +1,379 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.AndFilter;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.BetweenFilter;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.ColumnResolver;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.ComparisonFilter;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.ComparisonOperator;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.ConstantValue;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.InFilter;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.ValueListResolver;
+import io.github.spartatech.sqljson.util.ColumnPath;
+import io.github.spartatech.sqljson.util.JsonUtility;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.SelectExpressionItem;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Indexes created on the tables of a Json loaded in memory.
+ * Queries whose where clause has an equality or IN condition comparing an indexed column with literals,
+ * or a range condition (comparison or BETWEEN) on a column with a sorted index,
+ * read only the elements the index points to, instead of scanning the whole table.
+ * The where clause is still evaluated for each of those elements, so results are the same as the scan,
+ * apart from failures that only elements outside of the condition would raise.
+ * Queries ordered by a column with a sorted index read the elements in the order of the index, so they are not sorted.
+ * With columnar storage, tables are also copied into column vectors the first time they are filtered, and the
+ * where clause is evaluated over the vectors, so only the elements it keeps are read.
+ * Indexes can be created while queries are running, and are shared by all of them.
+ */
+public class TableIndexes {
+    private static final Logger log = LoggerFactory.getLogger(TableIndexes.class);
+
+    private final JsonNode json;
+    private final boolean columnar;
+    private final ConcurrentMap<String, IndexedTable> tables = new ConcurrentHashMap<>();
+
+    public TableIndexes(JsonNode json) {
+        this(json, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param json json the tables are found in
+     * @param columnar true -> where clauses are evaluated over columnar copies of the tables
+     */
+    public TableIndexes(JsonNode json, boolean columnar) {
+        this.json = json;
+        this.columnar = columnar;
+    }
+
+    /**
+     * Creates a hash index on a column of a table, in case it does not exist yet.
+     * Failures are thrown as {@link io.github.spartatech.sqljson.exception.ExceptionWrapper}.
+     *
+     * @param table table name, as in the from clause
+     * @param column column name, as in the where clause
+     */
+    public void createHashIndex(String table, String column) {
+        final ColumnPath path = ColumnPath.of(column);
+        final IndexedTable indexed = tables.computeIfAbsent(table, this::load);
+        indexed.hashIndexes.computeIfAbsent(path.getExpression(), name -> {
+            log.debug("Creating hash index on {} of table {}", name, table);
+            return HashIndex.build(indexed.elements, path);
+        });
+    }
+
+    /**
+     * Creates a sorted index on a numeric column of a table, in case it does not exist yet.
+     * Failures are thrown as {@link io.github.spartatech.sqljson.exception.ExceptionWrapper}.
+     *
+     * @param table table name, as in the from clause
+     * @param column column name, as in the where clause
+     */
+    public void createSortedIndex(String table, String column) {
+        final ColumnPath path = ColumnPath.of(column);
+        final IndexedTable indexed = tables.computeIfAbsent(table, this::load);
+        indexed.sortedIndexes.computeIfAbsent(path.getExpression(), name -> {
+            log.debug("Creating sorted index on {} of table {}", name, table);
+            return SortedIndex.build(indexed.elements, path);
+        });
+    }
+
+    private IndexedTable load(String table) {
+        final JsonNode node = JsonUtility.findElementInJson(json, ColumnPath.ofTable(table), false);
+        return new IndexedTable(JsonTreeTableSource.elementsOf(node), columnar);
+    }
+
+    /**
+     * Finds the elements the query needs to read, using the indexes of the table.
+     *
+     * @param plan query being executed
+     * @return partition with the elements found, null when no index applies to the query
+     */
+    TableSource.TablePartition lookup(QueryPlan plan) {
+        final String rootElement = plan.getQuery().getRootElement();
+        final boolean filtered = plan.getFilter() != RowFilter.ACCEPT_ALL;
+        final IndexedTable table = columnar && filtered ? tables.computeIfAbsent(rootElement, this::load) : tables.get(rootElement);
+        if (table == null) {
+            return null;
+        }
+        final Candidates candidates = table.candidates(plan.getFilter());
+        final SortedIndex orderIndex = table.orderIndex(plan);
+        final boolean ordered = orderIndex != null && (candidates == null || candidates.index == orderIndex);
+
+        int[] positions = null;
+        if (ordered) {
+            final int from = candidates == null ? 0 : candidates.from;
+            final int to = candidates == null ? orderIndex.size() : candidates.to;
+            log.debug("Reading {} of {} elements of table {} in the order of index on {}",
+                    to - from, table.elements.length, rootElement, plan.getOrdering().singleColumn().getExpression());
+            positions = orderIndex.orderedPositions(from, to, plan.getOrdering().isAscending());
+        } else if (candidates != null) {
+            positions = candidates.positions();
+            log.debug("Reading {} of {} elements from indexes of table {}", positions.length, table.elements.length, rootElement);
+        }
+
+        if (table.columnar != null && filtered) {
+            final int[] kept = table.columnar.select(plan.getFilter(), positions);
+            if (kept != null) {
+                log.debug("Columnar filter kept {} of {} elements of table {}", kept.length, table.elements.length, rootElement);
+                return () -> new PositionCursor(table.elements, kept, ordered, true);
+            }
+        }
+        if (positions == null) {
+            return null;
+        }
+        final int[] found = positions;
+        return () -> new PositionCursor(table.elements, found, ordered, false);
+    }
+
+    /**
+     * Elements of a table, flattened as the scan reads them, the indexes created on them, and their columnar copy.
+     */
+    private static final class IndexedTable {
+        final JsonNode[] elements;
+        final ConcurrentMap<String, HashIndex> hashIndexes = new ConcurrentHashMap<>();
+        final ConcurrentMap<String, SortedIndex> sortedIndexes = new ConcurrentHashMap<>();
+        final ColumnarTable columnar;
+
+        IndexedTable(JsonNode[] elements, boolean columnar) {
+            this.elements = elements;
+            this.columnar = columnar ? new ColumnarTable(elements) : null;
+        }
+
+        /**
+         * Elements that may match the filter.
+         * Ranges of the same sorted index joined by AND are intersected, other conditions joined by AND
+         * are narrowed to the one with less candidates.
+         *
+         * @param filter compiled where clause
+         * @return candidates, null when no index applies
+         */
+        Candidates candidates(RowFilter filter) {
+            if (filter instanceof AndFilter) {
+                final Candidates left = candidates(((AndFilter) filter).left);
+                final Candidates right = candidates(((AndFilter) filter).right);
+                if (left == null || right == null) {
+                    return left == null ? right : left;
+                }
+                if (left.index != null && left.index == right.index) {
+                    return new Candidates(left.index, Math.max(left.from, right.from), Math.min(left.to, right.to));
+                }
+                return left.size() <= right.size() ? left : right;
+            }
+            if (filter instanceof ComparisonFilter) {
+                return comparisonCandidates((ComparisonFilter) filter);
+            }
+            if (filter instanceof InFilter) {
+                return inCandidates((InFilter) filter);
+            }
+            if (filter instanceof BetweenFilter) {
+                return betweenCandidates((BetweenFilter) filter);
+            }
+            return null;
+        }
+
+        private Candidates comparisonCandidates(ComparisonFilter filter) {
+            final boolean columnOnLeft = filter.left instanceof ColumnResolver;
+            final ValueResolver column = columnOnLeft ? filter.left : filter.right;
+            final ValueResolver value = columnOnLeft ? filter.right : filter.left;
+            if (!(column instanceof ColumnResolver) || !(value instanceof ConstantValue)
+                    || ((ConstantValue) value).value == null) {
+                return null;
+            }
+            final String name = ((ColumnResolver) column).path.getExpression();
+            final Object constant = ((ConstantValue) value).value;
+            final HashIndex hashIndex = hashIndexes.get(name);
+            if (filter.operator == ComparisonOperator.EQUALS && hashIndex != null) {
+                return new Candidates(hashIndex.lookup(constant));
+            }
+
+            // comparisons of numbers of different types fail, leave them to the scan
+            final SortedIndex index = sortedIndexes.get(name);
+            if (index == null || filter.operator == ComparisonOperator.NOT_EQUALS || index.getType() != constant.getClass()) {
+                return null;
+            }
+            final ComparisonOperator operator = columnOnLeft ? filter.operator : filter.operator.reversed();
+            switch (operator) {
+                case EQUALS:
+                    return new Candidates(index, index.lowerBound(constant, true), index.upperBound(constant, true));
+                case GREATER_THAN:
+                    return new Candidates(index, index.lowerBound(constant, false), index.size());
+                case GREATER_THAN_EQUAL:
+                    return new Candidates(index, index.lowerBound(constant, true), index.size());
+                case LESS_THAN:
+                    return new Candidates(index, 0, index.upperBound(constant, false));
+                case LESS_THAN_EQUAL:
+                    return new Candidates(index, 0, index.upperBound(constant, true));
+                default:
+                    return null;
+            }
+        }
+
+        private Candidates betweenCandidates(BetweenFilter filter) {
+            if (!(filter.field instanceof ColumnResolver)
+                    || !(filter.start instanceof ConstantValue) || !(filter.end instanceof ConstantValue)) {
+                return null;
+            }
+            final SortedIndex index = sortedIndexes.get(((ColumnResolver) filter.field).path.getExpression());
+            final Object start = ((ConstantValue) filter.start).value;
+            final Object end = ((ConstantValue) filter.end).value;
+            if (index == null || !isNumber(start) || !isNumber(end)) {
+                return null;
+            }
+            return new Candidates(index, index.lowerBound(start, true), index.upperBound(end, true));
+        }
+
+        private static boolean isNumber(Object value) {
+            return value instanceof Long || value instanceof Double;
+        }
+
+        private Candidates inCandidates(InFilter filter) {
+            final ValueListResolver left = filter.left;
+            final ValueListResolver right = filter.right;
+            if (filter.not || left == null || right == null || right.constantKeys == null
+                    || left.items.size() != 1 || !(left.items.get(0) instanceof ColumnResolver)) {
+                return null;
+            }
+            final HashIndex index = hashIndexes.get(((ColumnResolver) left.items.get(0)).path.getExpression());
+            if (index == null || right.constantValues.isEmpty() || right.constantValues.get(0) == null
+                    || !index.holdsOnly(right.constantValues.get(0).getClass())) {
+                // IN fails on values of a different type than the list, leave it to the scan
+                return null;
+            }
+            return new Candidates(index.lookupAll(right.constantKeys));
+        }
+
+        /**
+         * Sorted index giving the elements in the order the query asks for.
+         * Only applies to queries ordered by a single column of the elements, that neither aggregate nor
+         * remove duplicates, as both depend on the order the elements are read.
+         *
+         * @param plan query being executed
+         * @return index, null when the query must be sorted
+         */
+        SortedIndex orderIndex(QueryPlan plan) {
+            final RowOrdering ordering = plan.getOrdering();
+            if (ordering == null || ordering.singleColumn() == null
+                    || plan.getAggregation() != null || plan.getQuery().isDistinctResults()) {
+                return null;
+            }
+            final String name = ordering.singleColumn().getExpression();
+            final SortedIndex index = sortedIndexes.get(name);
+            if (index == null || selectsOtherAs(plan.getQuery().getReturningFields(), name)) {
+                return null;
+            }
+            return index;
+        }
+
+        /**
+         * Checks whether a selector other than the column is named as it, then the rows are ordered by that selector.
+         */
+        private static boolean selectsOtherAs(List<SelectItem> selectors, String name) {
+            for (SelectItem selector : selectors) {
+                if (selector instanceof SelectExpressionItem) {
+                    final SelectExpressionItem item = (SelectExpressionItem) selector;
+                    final boolean sameColumn = item.getExpression() instanceof Column
+                            && ((Column) item.getExpression()).getFullyQualifiedName().equals(name);
+                    final String alias = item.getAlias() != null ? item.getAlias().getName() : item.getExpression().toString();
+                    if (!sameColumn && alias.equals(name)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Elements found in the indexes: either the positions themselves, or a range of a sorted index.
+     */
+    private static final class Candidates {
+        final SortedIndex index;
+        final int from;
+        final int to;
+        final int[] positions;
+
+        Candidates(int[] positions) {
+            this.index = null;
+            this.from = 0;
+            this.to = positions.length;
+            this.positions = positions;
+        }
+
+        Candidates(SortedIndex index, int from, int to) {
+            this.index = index;
+            this.from = from;
+            this.to = Math.max(from, to);
+            this.positions = null;
+        }
+
+        int size() {
+            return to - from;
+        }
+
+        /**
+         * Positions of the candidates.
+         *
+         * @return positions in the order of the table
+         */
+        int[] positions() {
+            return positions != null ? positions : index.positions(from, to);
+        }
+    }
+
+    /**
+     * Cursor over the elements found in the indexes.
+     */
+    private static final class PositionCursor implements TableCursor {
+        private final JsonNode[] elements;
+        private final int[] positions;
+        private final boolean ordered;
+        private final boolean filtered;
+        private int current;
+
+        PositionCursor(JsonNode[] elements, int[] positions, boolean ordered, boolean filtered) {
+            this.elements = elements;
+            this.positions = positions;
+            this.ordered = ordered;
+            this.filtered = filtered;
+        }
+
+        @Override
+        public boolean isOrdered() {
+            return ordered;
+        }
+
+        @Override
+        public boolean isFiltered() {
+            return filtered;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return current < positions.length;
+        }
+
+        @Override
+        public JsonNode next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return elements[positions[current++]];
+        }
+
+        @Override
+        public void close() {
+            current = positions.length;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Source of the elements for the table being queried.
+ */
+@FunctionalInterface
+public interface TableSource {
+
+    /**
+     * Opens a cursor over the elements of the table the plan queries.
+     *
+     * @param plan query being executed
+     * @return cursor, must be closed after use
+     * @throws IOException in case the source cannot be read
+     */
+    TableCursor open(QueryPlan plan) throws IOException;
+
+    /**
+     * Splits the table into partitions that can be read concurrently.
+     * Partitions are returned in the order of the table, reading all of them in sequence
+     * must produce the same elements as {@link #open(QueryPlan)}.
+     * Sources that cannot be split return a single partition.
+     *
+     * @param plan query being executed
+     * @param partitions desired number of partitions
+     * @param minimumSize minimum number of elements for the table to be split
+     * @return partitions of the table
+     * @throws IOException in case the source cannot be read
+     */
+    default List<TablePartition> split(QueryPlan plan, int partitions, int minimumSize) throws IOException {
+        return List.of(() -> open(plan));
+    }
+
+    /**
+     * Part of the table, that can be read independently of the others.
+     */
+    @FunctionalInterface
+    interface TablePartition {
+        TableCursor open() throws IOException;
+
+        /**
+         * Estimated number of elements in the partition.
+         *
+         * @return estimate, Long.MAX_VALUE when unknown
+         */
+        default long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.AndFilter;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.BetweenFilter;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.ColumnResolver;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.ComparisonFilter;
+import io.github.spartatech.sqljson.jsonprocessing.WhereClauseCompiler.IsNullFilter;
+import io.github.spartatech.sqljson.util.ColumnTypeHint;
+import io.github.spartatech.sqljson.util.GeneralConverters;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conditions of the where clause evaluated while an element is read from the stream, on each field as soon as it's read,
+ * so the rest of the elements that fail are skipped without being materialized.
+ * Only the first conditions joined by AND, each comparing a top-level field against literals, are evaluated,
+ * such as {@code status = 'ERROR'}, {@code time > 1600000000}, {@code value between 1 and 10} or {@code name is null}.
+ * Scalar fields are evaluated on their token, converted to the same native value as the node read from it,
+ * so no node is created for a field that is not selected.
+ * An element is rejected once a condition is false and all conditions before it are true, as the where clause
+ * would return false for it without evaluating the others. Conditions that fail are not used to reject,
+ * so the where clause evaluated on the element raises the same error.
+ * A field repeated in an element is taken with its last value, as in the tree, so a later value can accept
+ * an element rejected by an earlier one.
+ * Immutable, can be shared between threads, each cursor evaluates through its own {@link Evaluation}.
+ */
+final class TokenFilter {
+
+    private static final byte UNKNOWN = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+
+    private final FieldCondition[] conditions;
+    private final Map<String, Field> fields;
+
+    private TokenFilter(List<FieldCondition> conditions, Map<String, Field> fields) {
+        this.conditions = conditions.toArray(new FieldCondition[0]);
+        this.fields = fields;
+    }
+
+    /**
+     * Finds the conditions of the where clause that can be evaluated on a single field.
+     *
+     * @param filter compiled where clause
+     * @return token filter, null in case the where clause does not start with any of these conditions
+     */
+    static TokenFilter of(RowFilter filter) {
+        final List<RowFilter> conjuncts = new ArrayList<>();
+        flatten(filter, conjuncts);
+
+        final List<FieldCondition> conditions = new ArrayList<>();
+        final Map<String, Field> fields = new HashMap<>();
+        for (RowFilter conjunct : conjuncts) {
+            final FieldCondition condition = compile(conjunct);
+            if (condition == null) {
+                break;
+            }
+            final Field field = fields.computeIfAbsent(condition.column.path.segment(0),
+                    name -> new Field(condition.column.hintSlot));
+            field.conditions = concat(field.conditions, conditions.size());
+            conditions.add(condition);
+        }
+        return conditions.isEmpty() ? null : new TokenFilter(conditions, fields);
+    }
+
+    private static void flatten(RowFilter filter, List<RowFilter> conjuncts) {
+        if (filter instanceof AndFilter) {
+            flatten(((AndFilter) filter).left, conjuncts);
+            flatten(((AndFilter) filter).right, conjuncts);
+        } else {
+            conjuncts.add(filter);
+        }
+    }
+
+    /**
+     * Compiles the condition into a test of the native value of a single top-level field,
+     * evaluated as the condition evaluates it on the element.
+     *
+     * @param filter condition
+     * @return condition on the field, null in case the condition depends on anything else than a single top-level field
+     */
+    private static FieldCondition compile(RowFilter filter) {
+        if (filter instanceof ComparisonFilter) {
+            final ComparisonFilter comparison = (ComparisonFilter) filter;
+            if (comparison.right.isConstant() && isTopLevelField(comparison.left)) {
+                final Object constant = constantOf(comparison.right);
+                return new FieldCondition((ColumnResolver) comparison.left, value -> comparison.operator.test(value, constant));
+            }
+            if (comparison.left.isConstant() && isTopLevelField(comparison.right)) {
+                final Object constant = constantOf(comparison.left);
+                return new FieldCondition((ColumnResolver) comparison.right, value -> comparison.operator.test(constant, value));
+            }
+            return null;
+        }
+        if (filter instanceof BetweenFilter) {
+            final BetweenFilter between = (BetweenFilter) filter;
+            if (between.start.isConstant() && between.end.isConstant() && isTopLevelField(between.field)) {
+                final Object start = constantOf(between.start);
+                final Object end = constantOf(between.end);
+                return new FieldCondition((ColumnResolver) between.field, value -> BetweenFilter.between(value, start, end));
+            }
+            return null;
+        }
+        if (filter instanceof IsNullFilter) {
+            final IsNullFilter isNull = (IsNullFilter) filter;
+            if (isTopLevelField(isNull.value)) {
+                return new FieldCondition((ColumnResolver) isNull.value, value -> isNull.not != (value == null));
+            }
+        }
+        return null;
+    }
+
+    private static boolean isTopLevelField(ValueResolver value) {
+        return value instanceof ColumnResolver && ((ColumnResolver) value).path.length() == 1;
+    }
+
+    private static Object constantOf(ValueResolver value) {
+        try {
+            return value.resolve(null, null);
+        } catch (SQLException e) {
+            throw ExceptionWrapper.of(e);
+        }
+    }
+
+    private static int[] concat(int[] first, int second) {
+        final int[] result = Arrays.copyOf(first, first.length + 1);
+        result[first.length] = second;
+        return result;
+    }
+
+    /**
+     * Starts evaluating elements, for a single cursor.
+     *
+     * @param config configuration of the reader creating the nodes, numbers are converted as it reads them
+     * @return evaluation
+     */
+    Evaluation evaluation(DeserializationConfig config) {
+        return new Evaluation(config);
+    }
+
+    /**
+     * Condition on the native value of a field.
+     */
+    @FunctionalInterface
+    private interface ValuePredicate {
+        boolean test(Object value) throws SQLException;
+    }
+
+    private static final class FieldCondition {
+        final ColumnResolver column;
+        final ValuePredicate predicate;
+
+        FieldCondition(ColumnResolver column, ValuePredicate predicate) {
+            this.column = column;
+            this.predicate = predicate;
+        }
+    }
+
+    /**
+     * Top-level field with conditions, the positions of its conditions and the type hint its values are converted with.
+     */
+    private static final class Field {
+        final int hintSlot;
+        int[] conditions = new int[0];
+
+        Field(int hintSlot) {
+            this.hintSlot = hintSlot;
+        }
+    }
+
+    /**
+     * Results of the conditions for the element being read. Not thread-safe.
+     */
+    final class Evaluation {
+        private final byte[] results = new byte[conditions.length];
+        private final TypeHints hints = new TypeHints();
+        private final boolean bigIntegers;
+        private final boolean bigDecimals;
+
+        private Evaluation(DeserializationConfig config) {
+            this.bigIntegers = config.isEnabled(DeserializationFeature.USE_BIG_INTEGER_FOR_INTS);
+            this.bigDecimals = config.isEnabled(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        }
+
+        /**
+         * Starts a new element.
+         */
+        void reset() {
+            Arrays.fill(results, UNKNOWN);
+        }
+
+        /**
+         * Whether the field has conditions to be evaluated.
+         *
+         * @param name field name
+         * @return true -> field is evaluated
+         */
+        boolean evaluates(String name) {
+            return fields.containsKey(name);
+        }
+
+        /**
+         * Native value of the token the parser is positioned at, the same the node read from it is converted to.
+         *
+         * @param name name of a field evaluated
+         * @param parser parser positioned at the value of the field
+         * @return value, null in case the value must be read as a node: objects, arrays and big numbers
+         * @throws IOException in case the token cannot be read
+         */
+        Object valueOf(String name, JsonParser parser) throws IOException {
+            final ColumnTypeHint hint = hints.get(fields.get(name).hintSlot);
+            switch (parser.currentToken()) {
+                case VALUE_STRING:
+                    return GeneralConverters.convertJsonTextToNative(parser.getText(), hint);
+                case VALUE_NUMBER_INT:
+                    final JsonParser.NumberType type = parser.getNumberType();
+                    if (bigIntegers || (type != JsonParser.NumberType.INT && type != JsonParser.NumberType.LONG)) {
+                        return null;
+                    }
+                    return parser.getLongValue();
+                case VALUE_NUMBER_FLOAT:
+                    if (bigDecimals || parser.getNumberType() != JsonParser.NumberType.DOUBLE) {
+                        return null;
+                    }
+                    return parser.getDoubleValue();
+                case VALUE_TRUE:
+                case VALUE_FALSE:
+                case VALUE_NULL:
+                    return GeneralConverters.convertTextToNative(parser.getText(), hint);
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Native value of a field read as a node.
+         *
+         * @param name name of a field evaluated
+         * @param node value of the field
+         * @return value
+         */
+        Object valueOf(String name, JsonNode node) {
+            return GeneralConverters.convertJsonNodeToNative(node, hints.get(fields.get(name).hintSlot));
+        }
+
+        /**
+         * Evaluates the conditions of a field just read, replacing the results of its previous value.
+         *
+         * @param name field name
+         * @param value native value of the field
+         * @return true -> element is known to fail the where clause, unless a field is repeated
+         */
+        boolean rejects(String name, Object value) {
+            final Field field = fields.get(name);
+            if (field == null) {
+                return false;
+            }
+            for (int index : field.conditions) {
+                try {
+                    results[index] = conditions[index].predicate.test(value) ? TRUE : FALSE;
+                } catch (SQLException | RuntimeException e) {
+                    // Left unknown, the where clause raises the error in case it's evaluated
+                    results[index] = UNKNOWN;
+                }
+            }
+            for (byte result : results) {
+                if (result != TRUE) {
+                    return result == FALSE;
+                }
+            }
+            return false;
+        }
+    }
+}
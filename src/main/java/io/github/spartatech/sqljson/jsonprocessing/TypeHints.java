@@ -0,0 +1,45 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import io.github.spartatech.sqljson.util.ColumnTypeHint;
+
+import java.util.Arrays;
+
+/**
+ * Types inferred for the columns of a query during a single execution, see {@link ColumnTypeHint}.
+ * Compiled plans only keep the slot of each column, so they stay immutable and can be shared;
+ * each execution, and each partition scanned concurrently, has its own hints.
+ * Not thread safe.
+ */
+public final class TypeHints {
+
+    private ColumnTypeHint[] hints = new ColumnTypeHint[0];
+
+    /**
+     * Hint of a column, created the first time the column is read.
+     *
+     * @param slot slot allocated to the column when the plan was compiled
+     * @return hint
+     */
+    public ColumnTypeHint get(int slot) {
+        if (slot >= hints.length) {
+            hints = Arrays.copyOf(hints, Math.max(slot + 1, hints.length * 2));
+        }
+        ColumnTypeHint hint = hints[slot];
+        if (hint == null) {
+            hint = new ColumnTypeHint();
+            hints[slot] = hint;
+        }
+        return hint;
+    }
+
+    /**
+     * Allocates the slots of the columns while a plan is compiled.
+     */
+    static final class Slots {
+        private int count;
+
+        int allocate() {
+            return count++;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.sql.SQLException;
+
+/**
+ * Compiled operand of an expression, resolves to its native Java value for a given element.
+ */
+@FunctionalInterface
+public interface ValueResolver {
+
+    /**
+     * Resolves the value for the element.
+     *
+     * @param element element of the table
+     * @param hints types inferred for the columns during the execution
+     * @return native value
+     * @throws SQLException in case cannot resolve it
+     */
+    Object resolve(JsonNode element, TypeHints hints) throws SQLException;
+
+    /**
+     * Whether the value is the same for every element, such as literals.
+     *
+     * @return true -> constant, false -> depends on the element
+     */
+    default boolean isConstant() {
+        return false;
+    }
+}
@@ -0,0 +1,1146 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+import io.github.spartatech.sqljson.exception.ExpressionNotSupportedException;
+import io.github.spartatech.sqljson.util.ColumnPath;
+import io.github.spartatech.sqljson.util.ColumnTypeHint;
+import io.github.spartatech.sqljson.vo.ExpressionSidesValidator;
+import io.github.spartatech.sqljson.vo.MultiColumn;
+import io.github.spartatech.sqljson.vo.MultiListType;
+import net.sf.jsqlparser.expression.*;
+import net.sf.jsqlparser.expression.operators.arithmetic.*;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.*;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.SubSelect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static io.github.spartatech.sqljson.util.GeneralConverters.convertJsonNodeToNative;
+import static io.github.spartatech.sqljson.util.GeneralConverters.convertToDouble;
+
+/**
+ * Compiles the where clause into a tree of {@link RowFilter}.
+ * The expression tree is walked only once per query: literals are resolved and column paths
+ * are split during compilation, the resulting filter is then evaluated for every element.
+ * Conditions not supported evaluate to false.
+ */
+public class WhereClauseCompiler extends ExpressionVisitorAdapter {
+
+    private static final Logger log = LoggerFactory.getLogger(WhereClauseCompiler.class);
+
+    private final TypeHints.Slots slots;
+    private RowFilter filter = RowFilter.REJECT_ALL;
+
+    private WhereClauseCompiler(TypeHints.Slots slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * Compiles the where clause.
+     *
+     * @param expression where clause, null when query has no filters
+     * @return compiled filter
+     * @throws SQLException in case the expression is invalid
+     */
+    public static RowFilter compile(Expression expression) throws SQLException {
+        return compile(expression, new TypeHints.Slots());
+    }
+
+    /**
+     * Compiles the where clause, allocating the type hints of its columns.
+     *
+     * @param expression where clause, null when query has no filters
+     * @param slots allocator of the type hints of the plan
+     * @return compiled filter
+     * @throws SQLException in case the expression is invalid
+     */
+    static RowFilter compile(Expression expression, TypeHints.Slots slots) throws SQLException {
+        if (expression == null) {
+            return RowFilter.ACCEPT_ALL;
+        }
+        final List<Function> aggregates = new ArrayList<>();
+        expression.accept(new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(Function function) {
+                if (AggregateFunction.isAggregate(function)) {
+                    aggregates.add(function);
+                }
+                super.visit(function);
+            }
+        });
+        if (!aggregates.isEmpty()) {
+            throw new SQLException("Aggregate function " + aggregates.get(0) + " not allowed in where clause");
+        }
+        return compileHaving(expression, slots);
+    }
+
+    /**
+     * Compiles the having clause, where aggregate functions are read from the elements produced by the aggregation.
+     *
+     * @param expression having clause, null when query has no having
+     * @param slots allocator of the type hints of the plan
+     * @return compiled filter
+     * @throws SQLException in case the expression is invalid
+     */
+    static RowFilter compileHaving(Expression expression, TypeHints.Slots slots) throws SQLException {
+        if (expression == null) {
+            return RowFilter.ACCEPT_ALL;
+        }
+        try {
+            return compileFilter(expression, slots);
+        } catch (ExceptionWrapper e) {
+            if (e.unwrap() instanceof SQLException) {
+                throw (SQLException) e.unwrap();
+            }
+            throw new SQLException(e.unwrap());
+        }
+    }
+
+    private static RowFilter compileFilter(Expression expression, TypeHints.Slots slots) {
+        final WhereClauseCompiler compiler = new WhereClauseCompiler(slots);
+        expression.accept(compiler);
+        return compiler.filter;
+    }
+
+    @Override
+    public void visit(BitwiseRightShift bitwiseRightShift) {
+        throw ExpressionNotSupportedException.fromExpression("bitwiseRightShift");
+    }
+
+    @Override
+    public void visit(BitwiseLeftShift bitwiseLeftShift) {
+        throw ExpressionNotSupportedException.fromExpression("bitwiseLeftShift");
+    }
+
+    @Override
+    public void visit(JdbcParameter jdbcParameter) {
+        throw ExpressionNotSupportedException.fromExpression("jdbcParameter");
+    }
+
+    @Override
+    public void visit(JdbcNamedParameter jdbcNamedParameter) {
+        throw ExpressionNotSupportedException.fromExpression("jdbcNamedParameter");
+    }
+
+    @Override
+    public void visit(HexValue hexValue) {
+        throw ExpressionNotSupportedException.fromExpression("hexValue");
+    }
+
+    @Override
+    public void visit(SubSelect subSelect) {
+        throw new ExpressionNotSupportedException("SubSelect");
+    }
+
+    @Override
+    public void visit(NextValExpression nextValExpression) {
+        throw ExpressionNotSupportedException.fromExpression("NextVal not supported");
+    }
+
+    @Override
+    public void visit(CollateExpression collateExpression) {
+        throw ExpressionNotSupportedException.fromExpression("Collate not supported");
+    }
+
+    @Override
+    public void visit(Parenthesis parenthesis) {
+        filter = compileFilter(parenthesis.getExpression(), slots);
+    }
+
+    @Override
+    public void visit(AndExpression andExpression) {
+        filter = new AndFilter(compileFilter(andExpression.getLeftExpression(), slots), compileFilter(andExpression.getRightExpression(), slots));
+    }
+
+    @Override
+    public void visit(OrExpression orExpression) {
+        filter = new OrFilter(compileFilter(orExpression.getLeftExpression(), slots), compileFilter(orExpression.getRightExpression(), slots));
+    }
+
+    @Override
+    public void visit(NotExpression notExpression) {
+        filter = new NotFilter(compileFilter(notExpression.getExpression(), slots));
+    }
+
+    @Override
+    public void visit(Between between) {
+        filter = new BetweenFilter(
+                compileValue(between.getLeftExpression(), slots),
+                compileValue(between.getBetweenExpressionStart(), slots),
+                compileValue(between.getBetweenExpressionEnd(), slots));
+    }
+
+    @Override
+    public void visit(EqualsTo equalsTo) {
+        filter = compileComparison(equalsTo, ComparisonOperator.EQUALS, slots);
+    }
+
+    @Override
+    public void visit(NotEqualsTo notEqualsTo) {
+        filter = compileComparison(notEqualsTo, ComparisonOperator.NOT_EQUALS, slots);
+    }
+
+    @Override
+    public void visit(GreaterThan greaterThan) {
+        filter = compileComparison(greaterThan, ComparisonOperator.GREATER_THAN, slots);
+    }
+
+    @Override
+    public void visit(GreaterThanEquals greaterThanEquals) {
+        filter = compileComparison(greaterThanEquals, ComparisonOperator.GREATER_THAN_EQUAL, slots);
+    }
+
+    @Override
+    public void visit(MinorThan minorThan) {
+        filter = compileComparison(minorThan, ComparisonOperator.LESS_THAN, slots);
+    }
+
+    @Override
+    public void visit(MinorThanEquals minorThanEquals) {
+        filter = compileComparison(minorThanEquals, ComparisonOperator.LESS_THAN_EQUAL, slots);
+    }
+
+    @Override
+    public void visit(IsNullExpression isNullExpression) {
+        filter = new IsNullFilter(compileValue(isNullExpression.getLeftExpression(), slots), isNullExpression.isNot());
+    }
+
+    @Override
+    public void visit(InExpression inExpression) {
+        log.debug("Compiling inExpression: {}", inExpression);
+        final ValueListResolver left;
+        if (inExpression.getLeftExpression() != null) {
+            left = new ValueListResolver(List.of(compileValue(inExpression.getLeftExpression(), slots)), false);
+        } else if (inExpression.getLeftItemsList() != null) {
+            left = compileItemsList(inExpression.getLeftItemsList(), slots);
+        } else {
+            left = null;
+        }
+
+        final ValueListResolver right;
+        if (inExpression.getRightExpression() != null) {
+            right = new ValueListResolver(List.of(compileValue(inExpression.getRightExpression(), slots)), true);
+        } else if (inExpression.getRightItemsList() != null) {
+            right = compileItemsList(inExpression.getRightItemsList(), slots);
+        } else {
+            right = null;
+        }
+
+        filter = new InFilter(left, right, inExpression.isNot());
+    }
+
+    @Override
+    public void visit(FullTextSearch fullTextSearch) {
+
+    }
+
+    @Override
+    public void visit(IsBooleanExpression isBooleanExpression) {
+
+    }
+
+    @Override
+    public void visit(LikeExpression likeExpression) {
+
+    }
+
+    @Override
+    public void visit(CaseExpression caseExpression) {
+
+    }
+
+    @Override
+    public void visit(ExistsExpression existsExpression) {
+
+    }
+
+    @Override
+    public void visit(SimilarToExpression similarToExpression) {
+
+    }
+
+    @Override
+    public void visit(RegExpMatchOperator regExpMatchOperator) {
+
+    }
+
+    @Override
+    public void visit(RegExpMySQLOperator regExpMySQLOperator) {
+
+    }
+
+    @Override
+    public void visit(Function function) {
+
+    }
+
+    private static RowFilter compileComparison(BinaryExpression expression, ComparisonOperator operator, TypeHints.Slots slots) {
+        final ValueResolver left = compileValue(expression.getLeftExpression(), slots);
+        final ValueResolver right = compileValue(expression.getRightExpression(), slots);
+        if ((left instanceof MultiColumnResolver) && (right instanceof MultiColumnResolver)) {
+            throw ExceptionWrapper.of(new SQLException("MultiColumn on both sides of expression not allowed."));
+        }
+        return new ComparisonFilter(left, right, operator);
+    }
+
+    private static ValueListResolver compileItemsList(ItemsList itemsList, TypeHints.Slots slots) {
+        final InListItemCompiler inListCompiler = new InListItemCompiler(slots);
+        itemsList.accept(inListCompiler);
+        return new ValueListResolver(inListCompiler.result, false);
+    }
+
+    /**
+     * Compiles an operand into the resolver of its original type.
+     *
+     * @param value Expression to be compiled
+     * @param slots allocator of the type hints of the plan
+     * @return resolver for the value
+     */
+    static ValueResolver compileValue(Expression value, TypeHints.Slots slots) {
+        if (value instanceof TimestampValue) {
+            return new ConstantValue(((TimestampValue) value).getValue().toLocalDateTime());
+        }
+        if (value instanceof DateValue) {
+            return new ConstantValue(((DateValue) value).getValue().toLocalDate());
+        }
+        if (value instanceof TimeValue) {
+            return new ConstantValue(((TimeValue) value).getValue().toLocalTime());
+        }
+        if (value instanceof StringValue) {
+            return new ConstantValue(((StringValue) value).getValue());
+        }
+        if (value instanceof LongValue) {
+            return new ConstantValue(((LongValue) value).getValue());
+        }
+        if (value instanceof DoubleValue) {
+            return new ConstantValue(((DoubleValue) value).getValue());
+        }
+        if (value instanceof NullValue) {
+            return new ConstantValue(null);
+        }
+        if (value instanceof Column) {
+            return new ColumnResolver(ColumnPath.of(((Column) value).getFullyQualifiedName()), slots.allocate());
+        }
+        if (value instanceof Function && AggregateFunction.isAggregate((Function) value)) {
+            return new AggregateValue(AggregateFunction.fieldName((Function) value));
+        }
+        if (value instanceof Function) {
+            //TODO this is just a workaround to accept filter on json arrays,
+            //TODO We need to proper implement functions
+            return compileMultiColumn((Function) value, slots);
+        }
+        if (value instanceof Parenthesis) {
+            return compileValue(((Parenthesis) value).getExpression(), slots);
+        }
+        if (value instanceof SignedExpression) {
+            return compileSigned((SignedExpression) value, slots);
+        }
+        if (value instanceof Addition) {
+            return compileArithmetic((BinaryExpression) value, NumericOperation.ADDITION, slots);
+        }
+        if (value instanceof Subtraction) {
+            return compileArithmetic((BinaryExpression) value, NumericOperation.SUBTRACTION, slots);
+        }
+        if (value instanceof Multiplication) {
+            return compileArithmetic((BinaryExpression) value, NumericOperation.MULTIPLICATION, slots);
+        }
+        if (value instanceof Division) {
+            return compileArithmetic((BinaryExpression) value, NumericOperation.DIVISION, slots);
+        }
+
+        log.debug("Value expression not supported, resolving to null: {}", value);
+        return new ConstantValue(null);
+    }
+
+    private static ValueResolver compileMultiColumn(Function func, TypeHints.Slots slots) {
+        final String funcName = func.getName();
+        final MultiListType type;
+        try {
+            type = MultiListType.fromValue(funcName);
+        } catch (EnumConstantNotPresentException e) {
+            throw ExceptionWrapper.of(new SQLException("Function " + funcName + " currently not supported. Only supported ones are " + MultiListType.allOptionsAsString()));
+        }
+
+        final int parameters = func.getParameters() == null ? 0 : func.getParameters().getExpressions().size();
+        if (parameters != 1) {
+            throw ExceptionWrapper.of(new SQLException("Invalid number of parameters. "+ funcName + " expects 1 parameter, but got " + parameters));
+        }
+
+        if (!(func.getParameters().getExpressions().get(0) instanceof Column)) {
+            throw ExceptionWrapper.of(new SQLException("Parameters for function "+ funcName + " should be column"));
+        }
+
+        final String column = ((Column) func.getParameters().getExpressions().get(0)).getFullyQualifiedName();
+        return new MultiColumnResolver(type, ColumnPath.of(column), slots.allocate());
+    }
+
+    private static ValueResolver compileSigned(SignedExpression signed, TypeHints.Slots slots) {
+        final ValueResolver inner = compileValue(signed.getExpression(), slots);
+        switch (signed.getSign()) {
+            case '+':
+                return inner;
+            case '-':
+                return foldIfConstant(new ArithmeticResolver(new ConstantValue(-1L), inner, NumericOperation.MULTIPLICATION));
+            default:
+                throw ExpressionNotSupportedException.fromExpression("Sign " + signed.getSign());
+        }
+    }
+
+    private static ValueResolver compileArithmetic(BinaryExpression expression, NumericOperation op, TypeHints.Slots slots) {
+        return foldIfConstant(new ArithmeticResolver(
+                compileValue(expression.getLeftExpression(), slots),
+                compileValue(expression.getRightExpression(), slots),
+                op));
+    }
+
+    /**
+     * Operations over literals only are calculated once, during compilation.
+     *
+     * @param resolver operation
+     * @return constant with operation result, or the operation itself if it depends on the element
+     */
+    private static ValueResolver foldIfConstant(ArithmeticResolver resolver) {
+        if (resolver.left.isConstant() && resolver.right.isConstant()) {
+            try {
+                return new ConstantValue(resolver.resolve(null, null));
+            } catch (SQLException e) {
+                throw ExceptionWrapper.of(e);
+            }
+        }
+        return resolver;
+    }
+
+    /**
+     * This method parses special columns called MultiColumn.
+     * A multi column is a column that derives from Json Array. so it can be multiple value.
+     * MultiColumns only allowed with the use of functions matchAny or matchAll so we know what kind of comparison user
+     * wants.
+     *
+     * This is a recursive function that traverses through columnPath.
+     *
+     * @param element element to traverse
+     * @param columnPath compiled path of the column
+     * @param depth current segment of the path, as it recursively find elements.
+     * @param typeHint type inferred for the values of the column
+     * @param result List the objects found are added to.
+     * @throws SQLException In case a problem happens in the parsing.
+     */
+    private static void parseMultiColumn(JsonNode element, ColumnPath columnPath, int depth, ColumnTypeHint typeHint, List<Object> result) throws SQLException {
+        if (element.isArray()) {
+            for (JsonNode item : element) {
+                parseMultiColumn(item, columnPath, depth, typeHint, result);
+            }
+        } else {
+            if (depth == columnPath.length()) {
+                result.add(convertJsonNodeToNative(element, typeHint));
+            } else {
+                final JsonNode nextEl = element.path(columnPath.segment(depth));
+                if (nextEl.isMissingNode()) {
+                    throw new SQLException("Column not found "+ columnPath.getExpression());
+                }
+                parseMultiColumn(nextEl, columnPath, depth + 1, typeHint, result);
+            }
+        }
+    }
+
+    private static boolean processMultiColumn(MultiColumn multi, ExpressionSidesValidator validator, Predicate<Object> comparison) {
+        final boolean result;
+        if (multi.getFilterType() == MultiListType.MATCH_ANY) {
+            result = multi.getItems().stream()
+                    .peek(item -> {
+                        try {
+                            validator.validate(item);
+                        } catch (SQLException e) {
+                            throw ExceptionWrapper.of(e);
+                        }
+                    })
+                    .anyMatch(comparison);
+        } else {
+            result = multi.getItems().stream()
+                    .peek(item -> {
+                        try {
+                            validator.validate(item);
+                        } catch (SQLException e) {
+                            throw ExceptionWrapper.of(e);
+                        }
+                    })
+                    .allMatch(comparison);
+        }
+
+        return result;
+    }
+
+    /**
+     * Verifies if a given object is considered numeric.
+     * For numeric comparisons.
+     *
+     * @param obj object to be checked
+     * @return true -> is numeric, false -> is not numeric
+     */
+    private static boolean isNumeric(Object obj) {
+        return (obj instanceof Double) || obj instanceof Long;
+    }
+
+    /**
+     * Does numeric comparison for operands different than equal.
+     *
+     * @param left left side for comparison
+     * @param right right side for comparison
+     * @param op operation to be performed
+     */
+    private static boolean numericComparison(Object left, Object right, NumericOperation op) {
+        boolean returnValue;
+        try {
+            validateMatchingComparisonExpressions(left, right, op.getSymbol());
+
+            if (left instanceof Long && right instanceof Long) {
+                switch (op) {
+                    case GREATER_THAN: returnValue = ((long)left) > (long) right; break;
+                    case GREATER_THAN_EQUAL: returnValue = ((long)left) >= (long) right; break;
+                    case LESS_THAN: returnValue = ((long)left) < (long) right; break;
+                    case LESS_THAN_EQUAL: returnValue = ((long)left) <= (long) right; break;
+                    default: throw new SQLException("Operation " + op.getSymbol() + " not implemented");
+                }
+            } else if (left instanceof Double && right instanceof Double) {
+                switch (op) {
+                    case GREATER_THAN: returnValue = ((double)left) > (double) right; break;
+                    case GREATER_THAN_EQUAL: returnValue = ((double)left) >= (double) right; break;
+                    case LESS_THAN: returnValue = ((double)left) < (double) right; break;
+                    case LESS_THAN_EQUAL: returnValue = ((double)left) <= (double) right; break;
+                    default: throw new SQLException("Operation " + op.getSymbol() + " not implemented");
+                }
+            } else {
+                throw new SQLException(left.getClass().getSimpleName() + " not supported for " + op.getSymbol());
+            }
+        } catch (SQLException e) {
+            throw ExceptionWrapper.of(e);
+        }
+        return returnValue;
+    }
+
+    /**
+     * Validates if two sides of the comparison matches by type.
+     * @param left to validate
+     * @param right to validate
+     * @param operand to generate error message in case needed
+     * @throws SQLException in comparison is not allowed.
+     */
+    private static void validateMatchingComparisonExpressions(Object left, Object right, String operand) throws SQLException {
+        if (left == null || right == null || left.getClass() != right.getClass()) {
+            final String leftType = left == null ? "" : "("+left.getClass().getSimpleName()+ ") ";
+            final String rightType = right == null ? "" :  "("+right.getClass().getSimpleName()+ ")";
+            throw new SQLException(
+                    "Invalid types in expression " + left + leftType + operand + " " + right + rightType);
+        }
+    }
+
+    /**
+     * Enum with all possible Numeric operations.
+     */
+    enum NumericOperation {
+        //Comparison
+        GREATER_THAN(">"),
+        GREATER_THAN_EQUAL(">="),
+        LESS_THAN("<"),
+        LESS_THAN_EQUAL("<="),
+        BETWEEN("between"),
+
+        //Arithmetic
+        ADDITION("+"),
+        SUBTRACTION("-"),
+        DIVISION("/"),
+        MULTIPLICATION("*")
+        ;
+
+        final String symbol;
+
+        NumericOperation(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String getSymbol() {
+            return symbol;
+        }
+    }
+
+    /**
+     * Enum with the comparison operators, and how each one compares two values.
+     */
+    enum ComparisonOperator {
+        EQUALS("=") {
+            @Override
+            boolean test(Object left, Object right) {
+                return left.equals(right);
+            }
+        },
+        NOT_EQUALS("!=") {
+            @Override
+            boolean test(Object left, Object right) {
+                return !left.equals(right);
+            }
+        },
+        GREATER_THAN(">") {
+            @Override
+            boolean test(Object left, Object right) {
+                return numericComparison(left, right, NumericOperation.GREATER_THAN);
+            }
+        },
+        GREATER_THAN_EQUAL(">=") {
+            @Override
+            boolean test(Object left, Object right) {
+                return numericComparison(left, right, NumericOperation.GREATER_THAN_EQUAL);
+            }
+        },
+        LESS_THAN("<") {
+            @Override
+            boolean test(Object left, Object right) {
+                return numericComparison(left, right, NumericOperation.LESS_THAN);
+            }
+        },
+        LESS_THAN_EQUAL("<=") {
+            @Override
+            boolean test(Object left, Object right) {
+                return numericComparison(left, right, NumericOperation.LESS_THAN_EQUAL);
+            }
+        };
+
+        final String symbol;
+
+        ComparisonOperator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        abstract boolean test(Object left, Object right);
+
+        /**
+         * Operator giving the same result when the sides are swapped.
+         *
+         * @return reversed operator
+         */
+        ComparisonOperator reversed() {
+            switch (this) {
+                case GREATER_THAN: return LESS_THAN;
+                case GREATER_THAN_EQUAL: return LESS_THAN_EQUAL;
+                case LESS_THAN: return GREATER_THAN;
+                case LESS_THAN_EQUAL: return GREATER_THAN_EQUAL;
+                default: return this;
+            }
+        }
+    }
+
+    /* Compiled filters */
+
+    static final class AndFilter implements RowFilter {
+        final RowFilter left;
+        final RowFilter right;
+
+        AndFilter(RowFilter left, RowFilter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(JsonNode element, TypeHints hints) {
+            return left.test(element, hints) && right.test(element, hints);
+        }
+    }
+
+    static final class OrFilter implements RowFilter {
+        final RowFilter left;
+        final RowFilter right;
+
+        OrFilter(RowFilter left, RowFilter right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean test(JsonNode element, TypeHints hints) {
+            return left.test(element, hints) || right.test(element, hints);
+        }
+    }
+
+    static final class NotFilter implements RowFilter {
+        final RowFilter filter;
+
+        NotFilter(RowFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean test(JsonNode element, TypeHints hints) {
+            return !filter.test(element, hints);
+        }
+    }
+
+    /**
+     * Compares two expressions, which could possibly be MultiColumn.
+     */
+    static final class ComparisonFilter implements RowFilter {
+        final ValueResolver left;
+        final ValueResolver right;
+        final ComparisonOperator operator;
+
+        ComparisonFilter(ValueResolver left, ValueResolver right, ComparisonOperator operator) {
+            this.left = left;
+            this.right = right;
+            this.operator = operator;
+        }
+
+        @Override
+        public boolean test(JsonNode element, TypeHints hints) {
+            try {
+                final Object leftValue = left.resolve(element, hints);
+                final Object rightValue = right.resolve(element, hints);
+
+                if ((leftValue instanceof MultiColumn) || (rightValue instanceof MultiColumn)) {
+                    final MultiColumn multi;
+                    final Object otherSide;
+                    if (leftValue instanceof MultiColumn) {
+                        multi = (MultiColumn) leftValue;
+                        otherSide = rightValue;
+                    } else {
+                        multi = (MultiColumn) rightValue;
+                        otherSide = leftValue;
+                    }
+                    return processMultiColumn(multi,
+                            item -> validateMatchingComparisonExpressions(item, otherSide, "="),
+                            item -> operator.test(item, otherSide));
+                }
+                return operator.test(leftValue, rightValue);
+            } catch (SQLException e) {
+                throw ExceptionWrapper.of(e);
+            }
+        }
+    }
+
+    static final class BetweenFilter implements RowFilter {
+        final ValueResolver field;
+        final ValueResolver start;
+        final ValueResolver end;
+
+        BetweenFilter(ValueResolver field, ValueResolver start, ValueResolver end) {
+            this.field = field;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean test(JsonNode element, TypeHints hints) {
+            try {
+                final Object fieldValue = field.resolve(element, hints);
+                final Object startRange = start.resolve(element, hints);
+                final Object endRange = end.resolve(element, hints);
+
+                if (fieldValue instanceof MultiColumn) {
+                    return processMultiColumn((MultiColumn) fieldValue,
+                            item -> validate(item, startRange, endRange),
+                            item -> inRange(item, startRange, endRange));
+                }
+                return between(fieldValue, startRange, endRange);
+            } catch (SQLException e) {
+                throw ExceptionWrapper.of(e);
+            }
+        }
+
+        /**
+         * Evaluates the condition for a single value.
+         *
+         * @param item value of the field
+         * @param startRange start of the range
+         * @param endRange end of the range
+         * @return true -> value is in the range
+         * @throws SQLException in case the values cannot be compared
+         */
+        static boolean between(Object item, Object startRange, Object endRange) throws SQLException {
+            validate(item, startRange, endRange);
+            return inRange(item, startRange, endRange);
+        }
+
+        private static void validate(Object item, Object startRange, Object endRange) throws SQLException {
+            if (!isNumeric(item)) {
+                throw new SQLException("cannot perform between for " + item.getClass().getSimpleName());
+            }
+            Object convertedItem = item;
+            Object convertedStartRange = startRange;
+            Object convertedEndRange = endRange;
+            if ((item instanceof Double) || startRange instanceof Double || endRange instanceof Double) {
+                convertedItem = convertToDouble(item);
+                convertedStartRange = convertToDouble(startRange);
+                convertedEndRange = convertToDouble(endRange);
+            }
+            validateMatchingComparisonExpressions(convertedItem, convertedStartRange, "Between(start range)");
+            validateMatchingComparisonExpressions(convertedItem, convertedEndRange, "Between(end range)");
+        }
+
+        private static boolean inRange(Object item, Object startRange, Object endRange) {
+            if ((item instanceof Double) || startRange instanceof Double || endRange instanceof Double) {
+                final double convertedItem = convertToDouble(item);
+                return convertedItem >= convertToDouble(startRange) && convertedItem <= convertToDouble(endRange);
+            } else {
+                return (Long) item >= (Long) startRange && (Long) item <= (Long) endRange;
+            }
+        }
+    }
+
+    static final class InFilter implements RowFilter {
+        final ValueListResolver left;
+        final ValueListResolver right;
+        final boolean not;
+
+        InFilter(ValueListResolver left, ValueListResolver right, boolean not) {
+            this.left = left;
+            this.right = right;
+            this.not = not;
+        }
+
+        @Override
+        public boolean test(JsonNode element, TypeHints hints) {
+            try {
+                final List<Object> leftValues = left == null ? List.of() : left.resolve(element, hints);
+                final List<Object> rightValues = right == null ? List.of() : right.resolve(element, hints);
+
+                if (leftValues.isEmpty() || rightValues.isEmpty()) {
+                    log.trace("one side of in expression is empty, eliminating response");
+                    return false;
+                }
+
+                final Predicate<Object> inRight = right.constantKeys != null
+                        ? value -> right.constantKeys.contains(normalizeKey(value))
+                        : value -> containsKey(rightValues, value);
+
+                boolean keep;
+                if (leftValues.size() == 1 && leftValues.get(0) instanceof MultiColumn) {
+                    final MultiColumn multi = ((MultiColumn) leftValues.get(0));
+                    log.trace("MultiColumn {} evaluation left: [{}], right=[{}]", multi.getFilterType(), leftValues, rightValues);
+                    if (multi.getFilterType() == MultiListType.MATCH_ALL) {
+                        keep = multi.getItems().stream().allMatch(inRight);
+                    } else {
+                        keep = multi.getItems().stream().anyMatch(inRight);
+                    }
+                } else {
+                    validateListTypes(leftValues.get(0), rightValues.get(0));
+                    keep = true;
+                    for (Object value : leftValues) {
+                        if (!inRight.test(value)) {
+                            keep = false;
+                            break;
+                        }
+                    }
+                }
+                return not != keep;
+            } catch (SQLException e) {
+                throw ExceptionWrapper.of(e);
+            }
+        }
+
+        /**
+         * Evaluates the condition for a single value on the left side, when the list has only literals.
+         *
+         * @param value value on the left side
+         * @return true -> value is kept
+         * @throws SQLException in case the value has a different type than the list
+         */
+        boolean testConstantList(Object value) throws SQLException {
+            if (right.constantValues.isEmpty()) {
+                return false;
+            }
+            validateListTypes(value, right.constantValues.get(0));
+            return not != right.constantKeys.contains(normalizeKey(value));
+        }
+
+        private static boolean containsKey(List<Object> values, Object value) {
+            final Object key = normalizeKey(value);
+            for (Object item : values) {
+                if (Objects.equals(normalizeKey(item), key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Numbers are compared by their keys, so longs and doubles are accepted against each other.
+         */
+        private static void validateListTypes(Object left, Object right) throws SQLException {
+            if (!left.getClass().equals(right.getClass()) && !(isNumeric(left) && isNumeric(right))) {
+                log.trace("IN list mismatch {} != {}", left.getClass().getSimpleName(), right.getClass().getSimpleName());
+                throw new SQLException("In list mismatch: "
+                        + left.getClass().getSimpleName() + ", " + right.getClass().getSimpleName());
+            }
+        }
+    }
+
+    static final class IsNullFilter implements RowFilter {
+        final ValueResolver value;
+        final boolean not;
+
+        IsNullFilter(ValueResolver value, boolean not) {
+            this.value = value;
+            this.not = not;
+        }
+
+        @Override
+        public boolean test(JsonNode element, TypeHints hints) {
+            try {
+                return not != (value.resolve(element, hints) == null);
+            } catch (SQLException e) {
+                throw ExceptionWrapper.of(e);
+            }
+        }
+    }
+
+    /* Compiled values */
+
+    static final class ConstantValue implements ValueResolver {
+        final Object value;
+
+        ConstantValue(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object resolve(JsonNode element, TypeHints hints) {
+            return value;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+    }
+
+    static final class ColumnResolver implements ValueResolver {
+        final ColumnPath path;
+        final int hintSlot;
+
+        ColumnResolver(ColumnPath path, int hintSlot) {
+            this.path = path;
+            this.hintSlot = hintSlot;
+        }
+
+        @Override
+        public Object resolve(JsonNode element, TypeHints hints) {
+            return convertJsonNodeToNative(path.resolve(element), hints.get(hintSlot));
+        }
+    }
+
+    /**
+     * Value of an aggregate function, read from the element produced by the aggregation.
+     */
+    static final class AggregateValue implements ValueResolver {
+        final String field;
+
+        AggregateValue(String field) {
+            this.field = field;
+        }
+
+        @Override
+        public Object resolve(JsonNode element, TypeHints hints) {
+            final JsonNode value = element.path(field);
+            return value.isNull() || value.isMissingNode() ? null : convertJsonNodeToNative(value);
+        }
+    }
+
+    static final class MultiColumnResolver implements ValueResolver {
+        final MultiListType type;
+        final ColumnPath path;
+        final int hintSlot;
+
+        MultiColumnResolver(MultiListType type, ColumnPath path, int hintSlot) {
+            this.type = type;
+            this.path = path;
+            this.hintSlot = hintSlot;
+        }
+
+        @Override
+        public Object resolve(JsonNode element, TypeHints hints) throws SQLException {
+            final List<Object> items = new ArrayList<>();
+            parseMultiColumn(element, path, 0, hints.get(hintSlot), items);
+            final MultiColumn resultColumn = new MultiColumn(type);
+            resultColumn.addItems(items);
+            return resultColumn;
+        }
+    }
+
+    /**
+     * Arithmetic calculation between two operands.
+     */
+    static final class ArithmeticResolver implements ValueResolver {
+        final ValueResolver left;
+        final ValueResolver right;
+        final NumericOperation op;
+
+        ArithmeticResolver(ValueResolver left, ValueResolver right, NumericOperation op) {
+            this.left = left;
+            this.right = right;
+            this.op = op;
+        }
+
+        @Override
+        public Object resolve(JsonNode element, TypeHints hints) throws SQLException {
+            final Object leftValue = left.resolve(element, hints);
+            final Object rightValue = right.resolve(element, hints);
+
+            validateMatchingArithmeticExpressions(leftValue, rightValue, op.getSymbol());
+
+            if (leftValue instanceof Double && rightValue instanceof Double) {
+                switch (op) {
+                    case ADDITION: return ((double) leftValue) + (double) rightValue;
+                    case SUBTRACTION: return ((double) leftValue) - (double) rightValue;
+                    case DIVISION: return ((double) leftValue) / (double) rightValue;
+                    case MULTIPLICATION: return ((double) leftValue) * (double) rightValue;
+                    default: throw new SQLException("Operation " + op.getSymbol() + " not implemented");
+                }
+            } else if (leftValue instanceof Long && rightValue instanceof Long) {
+                switch (op) {
+                    case ADDITION: return ((long) leftValue) + (long) rightValue;
+                    case SUBTRACTION: return ((long) leftValue) - (long) rightValue;
+                    case DIVISION: return ((long) leftValue) / (long) rightValue;
+                    case MULTIPLICATION: return ((long) leftValue) * (long) rightValue;
+                    default: throw new SQLException("Operation " + op.getSymbol() + " not implemented");
+                }
+            } else if (leftValue instanceof Long) {
+                switch (op) {
+                    case ADDITION: return ((long) leftValue) + (double) rightValue;
+                    case SUBTRACTION: return ((long) leftValue) - (double) rightValue;
+                    case DIVISION: return ((long) leftValue) / (double) rightValue;
+                    case MULTIPLICATION: return ((long) leftValue) * (double) rightValue;
+                    default: throw new SQLException("Operation " + op.getSymbol() + " not implemented");
+                }
+            } else {
+                switch (op) {
+                    case ADDITION: return ((double) leftValue) + (long) rightValue;
+                    case SUBTRACTION: return ((double) leftValue) - (long) rightValue;
+                    case DIVISION: return ((double) leftValue) / (long) rightValue;
+                    case MULTIPLICATION: return ((double) leftValue) * (long) rightValue;
+                    default: throw new SQLException("Operation " + op.getSymbol() + " not implemented");
+                }
+            }
+        }
+
+        private static void validateMatchingArithmeticExpressions(Object left, Object right, String operand) throws SQLException {
+            final String leftType = "("+ (left == null ? "null" : left.getClass().getSimpleName())+ ") ";
+            final String rightType = "("+(right == null ? "null" :  "("+right.getClass().getSimpleName())+ ")";
+
+            if (!isNumeric(left)) {
+                throw new SQLException(
+                        leftType + " is invalid type in expression " + left + leftType + operand + " " + right + rightType);
+            }
+            if (!isNumeric(right)) {
+                throw new SQLException(
+                        rightType + " is invalid type in expression " + left + leftType + operand + " " + right + rightType);
+            }
+        }
+    }
+
+    /**
+     * Normalizes a value to be used as key of IN hash sets:
+     * integral doubles are keyed as longs, so 1.0 and 1 are the same key.
+     *
+     * @param value value
+     * @return key
+     */
+    static Object normalizeKey(Object value) {
+        if (value instanceof Double) {
+            final double number = (Double) value;
+            if (number == Math.rint(number) && number >= Long.MIN_VALUE && number <= Long.MAX_VALUE) {
+                return (long) number;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * List of values, for IN expressions.
+     * When all items are literals the list is resolved only once, into a hash set of normalized keys.
+     */
+    static final class ValueListResolver {
+        final List<ValueResolver> items;
+        final boolean flattenLists;
+        final List<Object> constantValues;
+        final Set<Object> constantKeys;
+
+        ValueListResolver(List<ValueResolver> items, boolean flattenLists) {
+            this.items = items;
+            this.flattenLists = flattenLists;
+            if (items.stream().allMatch(ValueResolver::isConstant)) {
+                try {
+                    this.constantValues = resolveItems(null, null);
+                } catch (SQLException e) {
+                    throw ExceptionWrapper.of(e);
+                }
+                this.constantKeys = new HashSet<>(constantValues.size() * 2);
+                constantValues.forEach(value -> constantKeys.add(normalizeKey(value)));
+            } else {
+                this.constantValues = null;
+                this.constantKeys = null;
+            }
+        }
+
+        List<Object> resolve(JsonNode element, TypeHints hints) throws SQLException {
+            if (constantValues != null) {
+                return constantValues;
+            }
+            return resolveItems(element, hints);
+        }
+
+        private List<Object> resolveItems(JsonNode element, TypeHints hints) throws SQLException {
+            final List<Object> result = new ArrayList<>(items.size());
+            for (ValueResolver item : items) {
+                final Object resolved = item.resolve(element, hints);
+                if (flattenLists && resolved instanceof List) {
+                    result.addAll((List<?>) resolved);
+                } else {
+                    if (!result.isEmpty() && resolved != null && result.get(0) != null
+                            && !result.get(0).getClass().equals(resolved.getClass())) {
+                        throw new SQLException("Different types in list: "
+                                + result.get(0).getClass().getSimpleName() + "!=" + resolved.getClass().getSimpleName());
+                    }
+                    result.add(resolved);
+                }
+            }
+            return result;
+        }
+    }
+
+    static class InListItemCompiler implements ItemsListVisitor {
+        final TypeHints.Slots slots;
+        final List<ValueResolver> result = new ArrayList<>();
+
+        InListItemCompiler(TypeHints.Slots slots) {
+            this.slots = slots;
+        }
+
+        @Override
+        public void visit(SubSelect subSelect) {
+            throw new ExpressionNotSupportedException("SubSelect in list not supported");
+        }
+
+        @Override
+        public void visit(ExpressionList expressionList) {
+            expressionList.getExpressions().forEach(expr -> result.add(compileValue(expr, slots)));
+        }
+
+        @Override
+        public void visit(MultiExpressionList multiExpressionList) {
+            throw new ExpressionNotSupportedException("MultiExpression in list not supported");
+        }
+
+        @Override
+        public void visit(NamedExpressionList namedExpressionList) {
+            throw new ExpressionNotSupportedException("NamedExpression in list not supported");
+        }
+    }
+}
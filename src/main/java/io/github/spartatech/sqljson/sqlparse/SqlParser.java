@@ -1,8 +1,10 @@
 package io.github.spartatech.sqljson.sqlparse;
 
 import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.LongValue;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.Limit;
 import net.sf.jsqlparser.statement.select.PlainSelect;
 import net.sf.jsqlparser.statement.select.Select;
 import net.sf.jsqlparser.util.TablesNamesFinder;
@@ -56,6 +58,11 @@ public class SqlParser {
             result.setFilters(ps.getWhere());
             result.setDistinctResults(ps.getDistinct() != null);
             result.setReturningFields(ps.getSelectItems());
+            result.setGroupByExpressions(ps.getGroupBy() == null ? null : ps.getGroupBy().getGroupByExpressions());
+            result.setHaving(ps.getHaving());
+            result.setOrderByElements(ps.getOrderByElements());
+            result.setLimit(parseLimit(ps));
+            result.setOffset(parseOffset(ps));
         }
 
         List<String> tableList = tablesNamesFinder.getTableList(selectStatement);
@@ -67,4 +74,51 @@ public class SqlParser {
 
         return result;
     }
+
+    /**
+     * Parses the maximum number of rows, from either LIMIT or FETCH.
+     *
+     * @param ps select
+     * @return limit, null when not limited
+     * @throws SQLFeatureNotSupportedException in case limit is not a number
+     */
+    private Long parseLimit(PlainSelect ps) throws SQLFeatureNotSupportedException {
+        if (ps.getFetch() != null) {
+            if (ps.getFetch().getFetchJdbcParameter() != null) {
+                throw new SQLFeatureNotSupportedException("Only numbers allowed in fetch: " + ps.getFetch());
+            }
+            return ps.getFetch().getRowCount();
+        }
+        final Limit limit = ps.getLimit();
+        if (limit == null || limit.isLimitAll() || limit.isLimitNull() || limit.getRowCount() == null) {
+            return null;
+        }
+        if (!(limit.getRowCount() instanceof LongValue)) {
+            throw new SQLFeatureNotSupportedException("Only numbers allowed in limit: " + limit.getRowCount());
+        }
+        return ((LongValue) limit.getRowCount()).getValue();
+    }
+
+    /**
+     * Parses the number of rows skipped, from either OFFSET or LIMIT offset, count.
+     *
+     * @param ps select
+     * @return offset, 0 when no row is skipped
+     * @throws SQLFeatureNotSupportedException in case offset is not a number
+     */
+    private long parseOffset(PlainSelect ps) throws SQLFeatureNotSupportedException {
+        if (ps.getOffset() != null) {
+            if (ps.getOffset().getOffsetJdbcParameter() != null) {
+                throw new SQLFeatureNotSupportedException("Only numbers allowed in offset: " + ps.getOffset());
+            }
+            return ps.getOffset().getOffset();
+        }
+        if (ps.getLimit() != null && ps.getLimit().getOffset() != null) {
+            if (!(ps.getLimit().getOffset() instanceof LongValue)) {
+                throw new SQLFeatureNotSupportedException("Only numbers allowed in offset: " + ps.getLimit().getOffset());
+            }
+            return ((LongValue) ps.getLimit().getOffset()).getValue();
+        }
+        return 0;
+    }
 }
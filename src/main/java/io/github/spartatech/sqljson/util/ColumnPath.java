@@ -0,0 +1,92 @@
+package io.github.spartatech.sqljson.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Path to a column in the json, split once into its segments.
+ * Segments are interned, as Jackson interns field names, lookups of the segments in the
+ * nodes are resolved by reference most of the time.
+ * Immutable, can be shared between threads.
+ */
+public final class ColumnPath {
+
+    private static final ColumnPath ROOT = new ColumnPath(".", new String[0]);
+
+    private final String expression;
+    private final String[] segments;
+
+    private ColumnPath(String expression, String[] segments) {
+        this.expression = expression;
+        this.segments = segments;
+    }
+
+    /**
+     * Splits the expression into the path segments, separated by dots.
+     *
+     * @param expression column expression, such as {@code field.innerField}
+     * @return ColumnPath
+     */
+    public static ColumnPath of(String expression) {
+        final List<String> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < expression.length(); i++) {
+            if (expression.charAt(i) == '.') {
+                segments.add(expression.substring(start, i).intern());
+                start = i + 1;
+            }
+        }
+        segments.add(expression.substring(start).intern());
+        return new ColumnPath(expression, segments.toArray(new String[0]));
+    }
+
+    /**
+     * Path for a table, where "." means the root of the json.
+     *
+     * @param tableName table name
+     * @return ColumnPath
+     */
+    public static ColumnPath ofTable(String tableName) {
+        return tableName.equals(".") ? ROOT : of(tableName);
+    }
+
+    /**
+     * Walks the path from the node, without handling arrays.
+     *
+     * @param node node to start from
+     * @return node found, MissingNode in case any segment is not found
+     */
+    public JsonNode resolve(JsonNode node) {
+        JsonNode result = node;
+        for (String segment : segments) {
+            result = result.path(segment);
+        }
+        return result;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public int length() {
+        return segments.length;
+    }
+
+    public String segment(int index) {
+        return segments[index];
+    }
+
+    /**
+     * Segments array, not copied. Callers in this package must not modify it.
+     */
+    String[] segments() {
+        return segments;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
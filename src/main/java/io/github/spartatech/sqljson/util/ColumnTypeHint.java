@@ -0,0 +1,26 @@
+package io.github.spartatech.sqljson.util;
+
+/**
+ * Type inferred from the text values already seen in a column, the next values are
+ * tried as this type first. A column of plain texts has no temporal type.
+ * Kept for a single execution, or a single build of an index, so it is not thread safe.
+ */
+public final class ColumnTypeHint {
+
+    private TemporalType type;
+
+    /**
+     * Temporal type last seen.
+     *
+     * @return type, null when the last value was a plain text or no value was seen yet
+     */
+    public TemporalType get() {
+        return type;
+    }
+
+    public void set(TemporalType type) {
+        if (this.type != type) {
+            this.type = type;
+        }
+    }
+}
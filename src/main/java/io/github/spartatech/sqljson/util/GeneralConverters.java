@@ -1,13 +1,20 @@
 package io.github.spartatech.sqljson.util;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
+import static io.github.spartatech.sqljson.util.StringUtility.unquote;
+
 public class GeneralConverters {
 
     public static Double convertToDouble(Object obj) {
@@ -51,4 +58,102 @@ public class GeneralConverters {
             return Optional.empty();
         }
     }
+
+    /**
+     * Converts value from JsonNode to native Java Object.
+     * @param node JsonNode to be converted
+     * @return Java native Object converted
+     */
+    public static Object convertJsonNodeToNative(JsonNode node) {
+        return convertJsonNodeToNative(node, null);
+    }
+
+    /**
+     * Converts value from JsonNode to native Java Object,
+     * using the type already inferred for the column the value comes from.
+     * @param node JsonNode to be converted
+     * @param hint type inferred for the column, null when not known
+     * @return Java native Object converted
+     */
+    public static Object convertJsonNodeToNative(JsonNode node, ColumnTypeHint hint) {
+        if (node.isArray()) {
+            final List<Object> result = new ArrayList<>(node.size());
+            for (JsonNode item : node) {
+                result.add(convertJsonNodeToNative(item, hint));
+            }
+            return result;
+        }
+        if (node.isInt() || node.isLong()) {
+            return node.asLong();
+        } else if (node.isFloat() || node.isDouble()) {
+            return node.asDouble();
+        } else if (node.isTextual()) {
+            return convertJsonTextToNative(node.textValue(), hint);
+        } else {
+            return convertTextToNative(unquote(node.toString()), hint);
+        }
+    }
+
+    /**
+     * Converts the value of a Json text to native Java Object, as it's converted from a text node.
+     * @param text value of the text
+     * @param hint type inferred for the column, null when not known
+     * @return Java native Object converted
+     */
+    public static Object convertJsonTextToNative(String text, ColumnTypeHint hint) {
+        return convertTextToNative(needsEscaping(text) ? unquote(TextNode.valueOf(text).toString()) : text, hint);
+    }
+
+    /**
+     * Converts a text to a temporal in case it is one, otherwise keep the text.
+     * Only the types the text has the shape of are parsed, starting with the type inferred for the column.
+     * @param text text to be converted
+     * @param hint type inferred for the column, null when not known
+     * @return temporal or the text
+     */
+    public static Object convertTextToNative(String text, ColumnTypeHint hint) {
+        final TemporalType[] candidates = TemporalType.candidates(text);
+        if (candidates.length == 0) {
+            if (hint != null) {
+                hint.set(null);
+            }
+            return text;
+        }
+
+        final TemporalType inferred = hint != null ? hint.get() : null;
+        if (inferred != null && TemporalType.in(inferred, candidates)) {
+            final Object value = inferred.tryParse(text);
+            if (value != null) {
+                return value;
+            }
+        }
+        for (TemporalType candidate : candidates) {
+            if (candidate != inferred) {
+                final Object value = candidate.tryParse(text);
+                if (value != null) {
+                    if (hint != null) {
+                        hint.set(candidate);
+                    }
+                    return value;
+                }
+            }
+        }
+        if (hint != null) {
+            hint.set(null);
+        }
+        return text;
+    }
+
+    /**
+     * Whether the text is changed by the json representation of it, otherwise it's taken directly, with no serialization.
+     */
+    private static boolean needsEscaping(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c < 0x20 || c == '"' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
 }
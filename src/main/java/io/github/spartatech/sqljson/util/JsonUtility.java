@@ -30,55 +30,112 @@ public class JsonUtility {
      * @return Object found for the traversalPath
      */
     public static JsonNode findElementInJson(JsonNode currentJson, String completeExpression, String[] traversalPath, boolean allowMissingNode) {
+        return findElementInJson(currentJson, completeExpression, traversalPath, 0, allowMissingNode);
+    }
+
+    /**
+     * Finds a given path (element in the json).
+     *
+     * @param currentJson      json element
+     * @param path             compiled path
+     * @param allowMissingNode if true does not throw exception if node was not found
+     * @return Object found for the path
+     */
+    public static JsonNode findElementInJson(JsonNode currentJson, ColumnPath path, boolean allowMissingNode) {
+        return findElementInJson(currentJson, path.getExpression(), path.segments(), 0, allowMissingNode);
+    }
+
+    /**
+     * Finds a given path (element in the json), starting from the segment at index {@code from}.
+     * Recursion.
+     */
+    private static JsonNode findElementInJson(JsonNode currentJson, String completeExpression, String[] traversalPath, int from, boolean allowMissingNode) {
         try {
-            if (traversalPath.length == 0) {
+            if (traversalPath.length == from) {
                 if (currentJson.isMissingNode()) {
                     if (allowMissingNode) {
                         return NullNode.getInstance();
                     } else {
-                        throw new SQLException("Cannot find element '" + completeExpression + "'");
+                        throw elementNotFound(completeExpression);
                     }
                 }
                 return currentJson;
-            } else {
-                final ArrayNode result = new ArrayNode(new JsonNodeFactory(false));
-                log.trace("Traversing through elements '{}'", Arrays.toString(traversalPath));
+            } else if (currentJson instanceof ArrayNode) {
+                final ArrayNode result = new ArrayNode(JsonNodeFactory.instance);
+                if (log.isTraceEnabled()) {
+                    log.trace("Traversing through elements '{}'", Arrays.toString(Arrays.copyOfRange(traversalPath, from, traversalPath.length)));
+                }
 
-                if  (currentJson instanceof ArrayNode) {
-                    currentJson.forEach(pathNode -> {
-                        JsonNode node = pathNode.path(traversalPath[0]);
-                        if (!node.isMissingNode()) {
-                            try {
-                                result.add(findElementInJson(node, completeExpression, Arrays.copyOfRange(traversalPath, 1, traversalPath.length), allowMissingNode));
-                            } catch (ExceptionWrapper e) {
-                                //Allow missing element in list
-                            }
+                for (JsonNode pathNode : currentJson) {
+                    final JsonNode node = pathNode.path(traversalPath[from]);
+                    if (!node.isMissingNode()) {
+                        try {
+                            result.add(findElementInJson(node, completeExpression, traversalPath, from + 1, allowMissingNode));
+                        } catch (ExceptionWrapper e) {
+                            //Allow missing element in list
                         }
-                    });
-
-                    if (result.isEmpty() && !allowMissingNode) {
-                        throw new SQLException("Cannot find element '" + StringUtility.join(traversalPath, ".") + "' from '" + completeExpression + "'");
-                    } else {
-                        return result;
                     }
+                }
+
+                if (result.isEmpty() && !allowMissingNode) {
+                    throw elementNotFound(completeExpression, traversalPath, from);
                 } else {
-                    JsonNode node = findElementInJson(currentJson.path(traversalPath[0]), completeExpression, Arrays.copyOfRange(traversalPath, 1, traversalPath.length), allowMissingNode);
-                    if (node.isMissingNode()) {
-                        if (allowMissingNode) {
-                            return NullNode.getInstance();
-                        } else {
-                            throw new SQLException("Cannot find element '" + traversalPath[0] + "' from '" + completeExpression + "'");
-                        }
+                    return result;
+                }
+            } else {
+                final JsonNode node = findElementInJson(currentJson.path(traversalPath[from]), completeExpression, traversalPath, from + 1, allowMissingNode);
+                if (node.isMissingNode()) {
+                    if (allowMissingNode) {
+                        return NullNode.getInstance();
+                    } else {
+                        throw new SQLException("Cannot find element '" + traversalPath[from] + "' from '" + completeExpression + "'");
                     }
-
-                    return node;
                 }
+
+                return node;
             }
         } catch (SQLException e) {
             throw ExceptionWrapper.of(e);
         }
     }
 
+    /**
+     * Failure for a path not found, when none of the elements it goes through is a list.
+     * Shared by every source of tables, so they fail the same way.
+     *
+     * @param completeExpression path not found
+     * @return exception to be thrown
+     */
+    public static SQLException elementNotFound(String completeExpression) {
+        return new SQLException("Cannot find element '" + completeExpression + "'");
+    }
+
+    /**
+     * Failure for a path not found in any item of a list, naming the part of the path looked up in the items.
+     *
+     * @param path path not found
+     * @param from index of the first segment looked up in the items of the list
+     * @return exception to be thrown
+     */
+    public static SQLException elementNotFound(ColumnPath path, int from) {
+        return elementNotFound(path.getExpression(), path.segments(), from);
+    }
+
+    private static SQLException elementNotFound(String completeExpression, String[] traversalPath, int from) {
+        return new SQLException("Cannot find element '" + join(traversalPath, from) + "' from '" + completeExpression + "'");
+    }
+
+    private static String join(String[] path, int from) {
+        final StringBuilder result = new StringBuilder();
+        for (int i = from; i < path.length; i++) {
+            if (i > from) {
+                result.append('.');
+            }
+            result.append(path[i]);
+        }
+        return result.toString();
+    }
+
     /**
      * Converts a Json into a HashMap with the results
      *
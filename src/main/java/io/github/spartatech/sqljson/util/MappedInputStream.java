@@ -0,0 +1,122 @@
+package io.github.spartatech.sqljson.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file, or a range of it, through memory maps instead of read calls.
+ * A single map is limited to 2GB, so larger files are mapped in consecutive segments, one at a time,
+ * as the stream reaches them. Bytes are copied straight from the page cache, which is shared
+ * by all processes reading the same file.
+ * Not thread-safe, as any other stream.
+ */
+public final class MappedInputStream extends InputStream {
+
+    static final long SEGMENT_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long end;
+    private final long segmentSize;
+    private long position;
+    private MappedByteBuffer segment;
+
+    MappedInputStream(FileChannel channel, long start, long end, long segmentSize) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the whole file.
+     *
+     * @param file file to be read
+     * @return stream, must be closed after use
+     * @throws IOException in case the file cannot be opened
+     */
+    public static MappedInputStream open(Path file) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return new MappedInputStream(channel, 0, channel.size(), SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens a range of the file.
+     *
+     * @param file file to be read
+     * @param start first byte, inclusive
+     * @param end last byte, exclusive
+     * @return stream, must be closed after use
+     * @throws IOException in case the file cannot be opened
+     */
+    public static MappedInputStream open(Path file, long start, long end) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return new MappedInputStream(channel, start, Math.min(end, channel.size()), SEGMENT_SIZE);
+    }
+
+    /**
+     * Makes sure the current segment has bytes to be read, mapping the next one if needed.
+     *
+     * @return false when the end was reached
+     */
+    private boolean ensureMapped() throws IOException {
+        if (segment != null && segment.hasRemaining()) {
+            return true;
+        }
+        if (position >= end) {
+            return false;
+        }
+        final long size = Math.min(segmentSize, end - position);
+        segment = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        position += size;
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return ensureMapped() ? segment.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureMapped()) {
+            return -1;
+        }
+        final int count = Math.min(length, segment.remaining());
+        segment.get(buffer, offset, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        if (count <= 0) {
+            return 0;
+        }
+        final long inSegment = segment == null ? 0 : segment.remaining();
+        if (count <= inSegment) {
+            segment.position(segment.position() + (int) count);
+            return count;
+        }
+        final long skipped = Math.min(count, inSegment + (end - position));
+        position += skipped - inSegment;
+        segment = null;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return segment == null ? 0 : segment.remaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        segment = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.spartatech.sqljson.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Equality and hashing of Json nodes computed on their structure, without serializing them.
+ * Two nodes are equivalent when their Json representations are the same:
+ * integral numbers are equal whatever the node type holding them (int, long or big integer),
+ * floating numbers are compared by value, and integral numbers are never equal to floating ones (1 and 1.0).
+ * Fields of objects are compared in order.
+ */
+public final class StructuralEquality {
+
+    private StructuralEquality() {
+    }
+
+    /**
+     * Hash of the node, consistent with {@link #equivalent(JsonNode, JsonNode)}.
+     *
+     * @param node node, may be null
+     * @return hash
+     */
+    public static int hash(JsonNode node) {
+        if (node == null) {
+            return 0;
+        }
+        switch (node.getNodeType()) {
+            case NUMBER:
+                if (node.isIntegralNumber()) {
+                    return node.canConvertToLong()
+                            ? Long.hashCode(node.longValue())
+                            : node.bigIntegerValue().hashCode();
+                }
+                return 31 + Double.hashCode(node.doubleValue());
+            case STRING:
+                return node.textValue().hashCode();
+            case BOOLEAN:
+                return Boolean.hashCode(node.booleanValue());
+            case ARRAY: {
+                int result = 1;
+                for (JsonNode item : node) {
+                    result = 31 * result + hash(item);
+                }
+                return result;
+            }
+            case OBJECT: {
+                int result = 2;
+                final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    final Map.Entry<String, JsonNode> field = fields.next();
+                    result = 31 * (31 * result + field.getKey().hashCode()) + hash(field.getValue());
+                }
+                return result;
+            }
+            default:
+                return node.getNodeType().hashCode();
+        }
+    }
+
+    /**
+     * Checks whether both nodes have the same Json representation.
+     *
+     * @param left node, may be null
+     * @param right node, may be null
+     * @return true if equivalent
+     */
+    public static boolean equivalent(JsonNode left, JsonNode right) {
+        if (left == right) {
+            return true;
+        }
+        if (left == null || right == null || left.getNodeType() != right.getNodeType()) {
+            return false;
+        }
+        switch (left.getNodeType()) {
+            case NUMBER:
+                if (left.isIntegralNumber() != right.isIntegralNumber()) {
+                    return false;
+                }
+                if (left.isIntegralNumber()) {
+                    return left.canConvertToLong() && right.canConvertToLong()
+                            ? left.longValue() == right.longValue()
+                            : left.bigIntegerValue().equals(right.bigIntegerValue());
+                }
+                return Double.compare(left.doubleValue(), right.doubleValue()) == 0;
+            case STRING:
+                return left.textValue().equals(right.textValue());
+            case BOOLEAN:
+                return left.booleanValue() == right.booleanValue();
+            case ARRAY: {
+                if (left.size() != right.size()) {
+                    return false;
+                }
+                for (int i = 0; i < left.size(); i++) {
+                    if (!equivalent(left.get(i), right.get(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            case OBJECT: {
+                if (left.size() != right.size()) {
+                    return false;
+                }
+                final Iterator<Map.Entry<String, JsonNode>> leftFields = left.fields();
+                final Iterator<Map.Entry<String, JsonNode>> rightFields = right.fields();
+                while (leftFields.hasNext()) {
+                    final Map.Entry<String, JsonNode> leftField = leftFields.next();
+                    final Map.Entry<String, JsonNode> rightField = rightFields.next();
+                    if (!leftField.getKey().equals(rightField.getKey())
+                            || !equivalent(leftField.getValue(), rightField.getValue())) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            case NULL:
+            case MISSING:
+                return true;
+            default:
+                return left.equals(right);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.spartatech.sqljson.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Temporal types recognized in text values.
+ */
+public enum TemporalType {
+    INSTANT {
+        @Override
+        Object parse(String text) {
+            return Instant.parse(text);
+        }
+    },
+    LOCAL_DATE_TIME {
+        @Override
+        Object parse(String text) {
+            return LocalDateTime.parse(text, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+    },
+    LOCAL_DATE {
+        @Override
+        Object parse(String text) {
+            return LocalDate.parse(text, DateTimeFormatter.ISO_LOCAL_DATE);
+        }
+    },
+    LOCAL_TIME {
+        @Override
+        Object parse(String text) {
+            return LocalTime.parse(text, DateTimeFormatter.ISO_LOCAL_TIME);
+        }
+    };
+
+    private static final TemporalType[] NONE = {};
+    private static final TemporalType[] DATE_TIMES = {INSTANT, LOCAL_DATE_TIME};
+    private static final TemporalType[] DATES = {LOCAL_DATE};
+    private static final TemporalType[] TIMES = {LOCAL_TIME};
+
+    abstract Object parse(String text);
+
+    /**
+     * Parses the text as this type.
+     *
+     * @param text text to be parsed
+     * @return temporal value, null in case the text is not of this type
+     */
+    public Object tryParse(String text) {
+        try {
+            return parse(text);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Types the text may be parsed to, checked only by the shape of the text, without parsing it.
+     * ISO times have the ':' after the two digits hour, date times have the 'T' separator and
+     * dates have the '-' separator. Anything else can be only a plain text.
+     * Types are returned in the order they should be tried.
+     *
+     * @param text text to check
+     * @return candidate types, empty in case the text can't be temporal
+     */
+    public static TemporalType[] candidates(String text) {
+        // shortest temporal is a time "hh:mm"
+        if (text.length() < 5) {
+            return NONE;
+        }
+        final char first = text.charAt(0);
+        if (!(first >= '0' && first <= '9') && first != '+' && first != '-') {
+            return NONE;
+        }
+        if (text.charAt(2) == ':') {
+            return TIMES;
+        }
+        boolean dash = false;
+        for (int i = 1; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == 'T' || c == 't') {
+                return dash ? DATE_TIMES : NONE;
+            } else if (c == '-') {
+                dash = true;
+            } else if (c < '0' || c > '9') {
+                return NONE;
+            }
+        }
+        return dash ? DATES : NONE;
+    }
+
+    /**
+     * Checks whether this type is one of the candidates.
+     */
+    static boolean in(TemporalType type, TemporalType[] candidates) {
+        for (TemporalType candidate : candidates) {
+            if (candidate == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -2,6 +2,7 @@ package io.github.spartatech.sqljson.vo;
 
 
 import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.statement.select.OrderByElement;
 import net.sf.jsqlparser.statement.select.SelectItem;
 
 import java.util.List;
@@ -14,6 +15,11 @@ public class JsonQueryClause {
     private boolean distinctResults;
 
     private List<SelectItem> returningFields;
+    private List<OrderByElement> orderByElements;
+    private Long limit;
+    private long offset;
+    private List<Expression> groupByExpressions;
+    private Expression having;
 
     public String getRootElement() {
         return rootElement;
@@ -47,7 +53,55 @@ public class JsonQueryClause {
         this.returningFields = returningFields;
     }
 
+    public List<OrderByElement> getOrderByElements() {
+        return orderByElements;
+    }
+
+    public void setOrderByElements(List<OrderByElement> orderByElements) {
+        this.orderByElements = orderByElements;
+    }
+
+    /**
+     * Maximum number of rows returned.
+     *
+     * @return limit, null when all rows are returned
+     */
+    public Long getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Number of rows skipped before the first one returned.
+     *
+     * @return offset, 0 when no row is skipped
+     */
+    public long getOffset() {
+        return offset;
+    }
 
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public List<Expression> getGroupByExpressions() {
+        return groupByExpressions;
+    }
+
+    public void setGroupByExpressions(List<Expression> groupByExpressions) {
+        this.groupByExpressions = groupByExpressions;
+    }
+
+    public Expression getHaving() {
+        return having;
+    }
+
+    public void setHaving(Expression having) {
+        this.having = having;
+    }
 
     @Override
     public String toString() {
@@ -58,6 +112,11 @@ public class JsonQueryClause {
                 .append(returningFields.stream()
                         .map(SelectItem::toString)
                         .collect(Collectors.joining(", ")))
+                .append(", groupBy=").append(groupByExpressions)
+                .append(", having=").append(having)
+                .append(", orderBy=").append(orderByElements)
+                .append(", limit=").append(limit)
+                .append(", offset=").append(offset)
                 .append('}')
                 .toString();
     }
@@ -12,9 +12,12 @@ import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
-public class JsonResultSet {
+/**
+ * Results of a query. Each execution creates its own result set, with its own position,
+ * which is meant to be read by a single thread at a time.
+ */
+public class JsonResultSet implements AutoCloseable {
 
     private LinkedHashSet<String> header;
     private List<ResultRow> rows;
@@ -24,7 +27,14 @@ public class JsonResultSet {
         this.rows = rows;
     }
 
-    private Integer currentRow = -1;
+    /**
+     * Constructor for result sets that do not hold the rows in memory.
+     */
+    protected JsonResultSet() {
+        this(new LinkedHashSet<>(), List.of());
+    }
+
+    private int currentRow = -1;
 
     public boolean next() {
         if (currentRow+1 < rows.size()) {
@@ -49,7 +59,7 @@ public class JsonResultSet {
     }
 
     public JsonNode getColumn(int columnIndex) {
-        return rows.get(currentRow).getColumn(columnIndex);
+        return currentRow().getColumn(columnIndex);
     }
 
     public JsonNode getColumn(String columnLabel) throws SQLException {
@@ -60,9 +70,27 @@ public class JsonResultSet {
         return this.header;
     }
 
-    public ResultRow getAllColumns() {
+    /**
+     * Row the result set is currently positioned at.
+     *
+     * @return current row
+     */
+    protected ResultRow currentRow() {
         return rows.get(currentRow);
     }
+
+    /**
+     * Releases resources held by the result set.
+     * Result sets that hold all rows in memory have nothing to release.
+     */
+    @Override
+    public void close() {
+
+    }
+
+    public ResultRow getAllColumns() {
+        return currentRow();
+    }
     
     public int size() {
         return rows.size();
@@ -71,43 +99,43 @@ public class JsonResultSet {
     /* ResultSet derived methods */
 
     public String getString(int columnIndex) {
-        return rows.get(currentRow).getColumn(columnIndex).textValue();
+        return currentRow().getColumn(columnIndex).textValue();
     }
 
     public boolean getBoolean(int columnIndex) {
-        return rows.get(currentRow).getColumn(columnIndex).asBoolean();
+        return currentRow().getColumn(columnIndex).asBoolean();
     }
 
     public byte getByte(int columnIndex) {
-        return ((Integer) rows.get(currentRow).getColumn(columnIndex).asInt()).byteValue();
+        return ((Integer) currentRow().getColumn(columnIndex).asInt()).byteValue();
     }
 
     public short getShort(int columnIndex) {
-        return ((Integer)rows.get(currentRow).getColumn(columnIndex).asInt()).shortValue();
+        return ((Integer)currentRow().getColumn(columnIndex).asInt()).shortValue();
     }
 
     public int getInt(int columnIndex) {
-        return rows.get(currentRow).getColumn(columnIndex).asInt();
+        return currentRow().getColumn(columnIndex).asInt();
     }
 
     public long getLong(int columnIndex) {
-        return rows.get(currentRow).getColumn(columnIndex).asLong();
+        return currentRow().getColumn(columnIndex).asLong();
     }
 
     public float getFloat(int columnIndex) {
-        return ((Double)rows.get(currentRow).getColumn(columnIndex).asDouble()).floatValue();
+        return ((Double)currentRow().getColumn(columnIndex).asDouble()).floatValue();
     }
 
     public double getDouble(int columnIndex) {
-        return rows.get(currentRow).getColumn(columnIndex).asDouble();
+        return currentRow().getColumn(columnIndex).asDouble();
     }
 
     public BigDecimal getBigDecimal(int columnIndex, int scale) {
-        return BigDecimal.valueOf(rows.get(currentRow).getColumn(columnIndex).asLong(), scale);
+        return BigDecimal.valueOf(currentRow().getColumn(columnIndex).asLong(), scale);
     }
 
     public byte[] getBytes(int columnIndex) {
-        return rows.get(currentRow).getColumn(columnIndex).asText().getBytes(StandardCharsets.UTF_8);
+        return currentRow().getColumn(columnIndex).asText().getBytes(StandardCharsets.UTF_8);
     }
 
     public Date getDate(int columnIndex) throws SQLException {
@@ -135,27 +163,27 @@ public class JsonResultSet {
     }
 
     public String getString(String columnLabel) throws SQLException {
-        return rows.get(currentRow).getColumn(indexForLabel(columnLabel)).asText();
+        return currentRow().getColumn(indexForLabel(columnLabel)).asText();
     }
     
     public boolean getBoolean(String columnLabel) throws SQLException {
-        return rows.get(currentRow).getColumn(indexForLabel(columnLabel)).asBoolean();
+        return currentRow().getColumn(indexForLabel(columnLabel)).asBoolean();
     }
     
     public byte getByte(String columnLabel) throws SQLException {
-        return ((Integer)rows.get(currentRow).getColumn(indexForLabel(columnLabel)).asInt()).byteValue();
+        return ((Integer)currentRow().getColumn(indexForLabel(columnLabel)).asInt()).byteValue();
     }
     
     public short getShort(String columnLabel) throws SQLException {
-        return ((Integer)rows.get(currentRow).getColumn(indexForLabel(columnLabel)).asInt()).shortValue();
+        return ((Integer)currentRow().getColumn(indexForLabel(columnLabel)).asInt()).shortValue();
     }
     
     public int getInt(String columnLabel) throws SQLException {
-        return rows.get(currentRow).getColumn(indexForLabel(columnLabel)).asInt();
+        return currentRow().getColumn(indexForLabel(columnLabel)).asInt();
     }
 
     public Long getLong(String columnLabel) throws SQLException {
-        final JsonNode node = rows.get(currentRow).getColumn(indexForLabel(columnLabel));
+        final JsonNode node = currentRow().getColumn(indexForLabel(columnLabel));
         if (node.isNull()) {
             return null;
         } else {
@@ -164,19 +192,19 @@ public class JsonResultSet {
     }
 
     public float getFloat(String columnLabel) throws SQLException {
-        return ((Double)rows.get(currentRow).getColumn(indexForLabel(columnLabel)).asDouble()).floatValue();
+        return ((Double)currentRow().getColumn(indexForLabel(columnLabel)).asDouble()).floatValue();
     }
 
     public double getDouble(String columnLabel) throws SQLException {
-        return rows.get(currentRow).getColumn(indexForLabel(columnLabel)).asDouble();
+        return currentRow().getColumn(indexForLabel(columnLabel)).asDouble();
     }
 
     public BigDecimal getBigDecimal(String columnLabel, int scale) throws SQLException {
-        return BigDecimal.valueOf(rows.get(currentRow).getColumn(indexForLabel(columnLabel)).asLong(), scale);
+        return BigDecimal.valueOf(currentRow().getColumn(indexForLabel(columnLabel)).asLong(), scale);
     }
 
     public byte[] getBytes(String columnLabel) throws SQLException {
-        return rows.get(currentRow).getColumn(indexForLabel(columnLabel)).asText().getBytes(StandardCharsets.UTF_8);
+        return currentRow().getColumn(indexForLabel(columnLabel)).asText().getBytes(StandardCharsets.UTF_8);
     }
 
     public Date getDate(String columnLabel) throws SQLException {
@@ -208,7 +236,7 @@ public class JsonResultSet {
     }
 
     public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
-        final JsonNode val = rows.get(currentRow).getColumn(columnIndex);
+        final JsonNode val = currentRow().getColumn(columnIndex);
         if (val.isLong()) {
             return BigDecimal.valueOf(val.asLong());
         } else if (val.isDouble()) {
@@ -219,7 +247,7 @@ public class JsonResultSet {
 
     
     public BigDecimal getBigDecimal(String columnLabel) throws SQLException {
-        final JsonNode val = rows.get(currentRow).getColumn(indexForLabel(columnLabel));
+        final JsonNode val = currentRow().getColumn(indexForLabel(columnLabel));
         if (val.isLong()) {
             return BigDecimal.valueOf(val.asLong());
         } else if (val.isDouble()) {
@@ -230,7 +258,7 @@ public class JsonResultSet {
     
     private int indexForLabel(String columnLabel) throws SQLException {
         int index = 0;
-        for (String h : header) {
+        for (String h : getColumnNames()) {
             if (h.equals(columnLabel)) {
                 return index;
             } else {
@@ -269,9 +297,14 @@ public class JsonResultSet {
             return this;
         }
 
+        public JsonResultSetBuilder addRow(ResultRow row) {
+            rows.add(row);
+            return this;
+        }
+
         public void applyDistinct() {
             log.debug("Applying distinct to result");
-            rows = rows.stream().distinct().collect(Collectors.toList());
+            rows = new ArrayList<>(new LinkedHashSet<>(rows));
         }
 
 
@@ -0,0 +1,80 @@
+package io.github.spartatech.sqljson.vo;
+
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+
+/**
+ * Forward-only JsonResultSet, that does not hold the rows in memory.
+ * Each call to {@link #next()} pulls the next row through filter and projection,
+ * so only the rows consumed are processed.
+ * Failures while producing rows are thrown as {@link ExceptionWrapper}.
+ */
+public class JsonResultSetCursor extends JsonResultSet {
+
+    private final ResultRowCursor rows;
+    private ResultRow current;
+
+    public JsonResultSetCursor(ResultRowCursor rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public boolean next() {
+        if (rows.hasNext()) {
+            current = rows.next();
+            return true;
+        } else {
+            current = null;
+            close();
+            return false;
+        }
+    }
+
+    /**
+     * Not supported, cursor is forward-only.
+     */
+    @Override
+    public boolean previous() {
+        throw new UnsupportedOperationException("Cursor is forward-only");
+    }
+
+    /**
+     * Not supported, rows are not kept in memory.
+     */
+    @Override
+    public ResultRow getRow(int rowNumber) {
+        throw new UnsupportedOperationException("Cursor does not support access by row number");
+    }
+
+    /**
+     * Not supported, size is only known after all rows are consumed.
+     */
+    @Override
+    public int size() {
+        throw new UnsupportedOperationException("Cursor does not know its size");
+    }
+
+    @Override
+    public LinkedHashSet<String> getColumnNames() {
+        return rows.getHeader();
+    }
+
+    @Override
+    protected ResultRow currentRow() {
+        if (current == null) {
+            throw new IllegalStateException("Cursor is not positioned at a row");
+        }
+        return current;
+    }
+
+    @Override
+    public void close() {
+        try {
+            rows.close();
+        } catch (IOException e) {
+            throw ExceptionWrapper.of(e);
+        }
+    }
+}
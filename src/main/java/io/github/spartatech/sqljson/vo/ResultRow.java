@@ -1,16 +1,23 @@
 package io.github.spartatech.sqljson.vo;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import io.github.spartatech.sqljson.util.StructuralEquality;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.stream.Collectors;
 
+/**
+ * Row of results.
+ * Rows are equal when their columns have the same Json representation, compared structurally.
+ * The hash is computed once, so columns must not be changed after the row is used in hashed collections.
+ * It is cached in a single field, 0 until computed, as String does, so rows can be shared between threads.
+ */
 public class ResultRow {
     private List<JsonNode> columns = new ArrayList<>();
+    private int hash;
 
-    protected ResultRow(List<JsonNode> columns) {
+    public ResultRow(List<JsonNode> columns) {
         this.columns = columns;
     }
 
@@ -27,18 +34,34 @@ public class ResultRow {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         ResultRow resultRow = (ResultRow) o;
-        return this.toString().equals(resultRow.toString());
+        if (hashCode() != resultRow.hashCode() || columns.size() != resultRow.columns.size()) {
+            return false;
+        }
+        for (int i = 0; i < columns.size(); i++) {
+            if (!StructuralEquality.equivalent(columns.get(i), resultRow.columns.get(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(toString());
+        int result = hash;
+        if (result == 0) {
+            result = 1;
+            for (JsonNode column : columns) {
+                result = 31 * result + StructuralEquality.hash(column);
+            }
+            hash = result;
+        }
+        return result;
     }
 
     @Override
     public String toString() {
         return "{" + columns.stream()
-                .map(JsonNode::toString)
+                .map(String::valueOf)
                 .collect(Collectors.joining("},{"))
                 +"}";
     }
@@ -0,0 +1,19 @@
+package io.github.spartatech.sqljson.vo;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * Forward-only cursor over result rows, produced on demand.
+ * Failures while producing rows are thrown as {@link io.github.spartatech.sqljson.exception.ExceptionWrapper}.
+ */
+public interface ResultRowCursor extends Iterator<ResultRow>, Closeable {
+
+    /**
+     * Column names of the rows. Might need to produce the first row to find them out.
+     *
+     * @return column names, empty in case there are no rows
+     */
+    LinkedHashSet<String> getHeader();
+}
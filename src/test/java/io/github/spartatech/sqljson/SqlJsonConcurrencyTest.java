@@ -0,0 +1,136 @@
+package io.github.spartatech.sqljson;
+
+import io.github.spartatech.sqljson.vo.JsonResultSet;
+import io.github.spartatech.sqljson.vo.ResultRow;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Queries a single SqlJson from many threads at once.
+ */
+public class SqlJsonConcurrencyTest {
+    private static final Logger log = LoggerFactory.getLogger(SqlJsonConcurrencyTest.class);
+
+    private static final List<String> QUERIES = List.of(
+            "select city from \".\" where state = 'Florida'",
+            "select distinct state from \".\" where city in ('Springfield', 'Franklin') order by state",
+            "select state, count(*) from \".\" group by state having count(*) > 200 order by 2 desc",
+            "select city, state from \".\" where state != 'Texas' order by city desc limit 10 offset 5",
+            "select * from \".\" where city = 'Abbeville'"
+    );
+
+    @Test
+    public void concurrent_queries_match_sequential_results() throws Exception {
+        final SqlJson sqlj = new SqlJson(streamFromFile("us-cities"));
+        final List<List<ResultRow>> expected = new ArrayList<>();
+        for (String sql : QUERIES) {
+            expected.add(rows(sqlj.queryAsJSONObject(sql)));
+        }
+
+        for (int threads : new int[] {1, 2, 4, 8}) {
+            final int iterations = 40;
+            final ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                final CountDownLatch start = new CountDownLatch(1);
+                final List<Future<?>> workers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    final int offset = t;
+                    workers.add(pool.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < iterations; i++) {
+                            final int query = (i + offset) % QUERIES.size();
+                            final JsonResultSet results = i % 2 == 0
+                                    ? sqlj.queryAsJSONObject(QUERIES.get(query))
+                                    : sqlj.queryAsCursor(QUERIES.get(query));
+                            assertEquals(expected.get(query), rows(results), QUERIES.get(query));
+                        }
+                        return null;
+                    }));
+                }
+
+                final long begin = System.nanoTime();
+                start.countDown();
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+                final double seconds = (System.nanoTime() - begin) / 1e9;
+                log.info("{} threads: {} queries/s", threads, Math.round(threads * iterations / seconds));
+            } finally {
+                pool.shutdown();
+                assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    @Test
+    public void indexes_created_while_querying_concurrently() throws Exception {
+        final SqlJson sqlj = new SqlJson(streamFromFile("us-cities"));
+        final String sql = "select city from \".\" where state = 'Georgia'";
+        final List<ResultRow> expected = rows(sqlj.queryAsJSONObject(sql));
+
+        final List<CompletableFuture<JsonResultSet>> futures = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            futures.add(sqlj.queryAsync(sql));
+            if (i == 10) {
+                sqlj.createIndex(".", "state");
+            }
+        }
+        for (CompletableFuture<JsonResultSet> future : futures) {
+            assertEquals(expected, rows(future.join()));
+        }
+    }
+
+    @Test
+    public void query_async_on_configured_executor() throws Exception {
+        final AtomicInteger executions = new AtomicInteger();
+        final SqlJson sqlj = new SqlJson(streamFromFile("us-cities"), SqlJsonConfigurer.instance()
+                .asyncExecutor(task -> {
+                    executions.incrementAndGet();
+                    new Thread(task).start();
+                }));
+
+        final JsonResultSet results = sqlj.queryAsync("select city from \".\" where state = 'Florida'").get();
+
+        assertEquals(375, results.size());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void query_async_failure() throws Exception {
+        final SqlJson sqlj = new SqlJson(streamFromFile("us-cities"));
+
+        final CompletableFuture<JsonResultSet> future = sqlj.queryAsync("select city from invalid");
+
+        final CompletionException ex = assertThrows(CompletionException.class, future::join);
+        assertTrue(ex.getCause() instanceof SQLException, String.valueOf(ex.getCause()));
+    }
+
+    private static List<ResultRow> rows(JsonResultSet results) {
+        final List<ResultRow> rows = new ArrayList<>();
+        while (results.next()) {
+            rows.add(results.getAllColumns());
+        }
+        results.close();
+        return rows;
+    }
+
+    private InputStream streamFromFile(String filename) {
+        return this.getClass().getClassLoader().getResourceAsStream("./test-json/" + filename + ".json");
+    }
+}
@@ -0,0 +1,435 @@
+package io.github.spartatech.sqljson;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import io.github.spartatech.sqljson.vo.JsonResultSet;
+import io.github.spartatech.sqljson.vo.ResultRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StreamingSqlJson.
+ */
+public class StreamingSqlJsonTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "simple-scenario|select * from items where name = 'Daniel'",
+            "simple-scenario|select name, age from items where age > 37",
+            "simple-scenario|select \".\" from items",
+            "simple-scenario_nested_json|select name, body.hair.color from items",
+            "multiple-list-scenario|select name from levels.elements",
+            "multiple-list-scenario|select * from levels where matchAny(elements.name) = 'Level1Element1'",
+            "us-states|select * from \".\" where abbreviation in ('FL', 'GA')",
+            "us-cities|select distinct state from \".\" where state in ('Florida', 'Georgia')",
+            "us-cities|select city from \".\" where state = 'Florida'",
+            "us-cities|select state, count(*) from \".\" group by state having count(*) > 100 order by 2 desc",
+    })
+    public void streaming_matches_tree_results(String jsonFile, String sql) throws Exception {
+        final JsonResultSet expected = new SqlJson(streamFromFile(jsonFile)).queryAsJSONObject(sql);
+        final JsonResultSet fromStream = SqlJson.streaming(streamFromFile(jsonFile)).queryAsJSONObject(sql);
+        final JsonResultSet fromPath = SqlJson.streaming(pathToFile(jsonFile)).queryAsJSONObject(sql);
+
+        assertResultsEqual(expected, fromStream);
+        assertResultsEqual(expected, fromPath);
+        assertResultsEqual(expected, new SqlJson(pathToFile(jsonFile)).queryAsJSONObject(sql));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "select id from readings where sensor = 's1'",
+            "select id, value from readings where sensor = 's1' and value > 50.0",
+            "select * from readings where value > 50.0 and sensor = 's2' and time < 1600500000",
+            "select id from readings where id between 10 and 20 or sensor = 's3'",
+            "select id from readings where sensor != 's1' and id >= 490",
+            "select id from readings where missing is null and sensor = 's4'",
+            "select id from readings where sensor is not null and 10 > id",
+            "select id from readings where value > 50 and sensor = 's1'",
+            "select id from readings where sensor = 's1' and value > 50",
+            "select sensor, count(*) from readings where value < 20.0 group by sensor",
+    })
+    public void token_filter_matches_tree_results(String sql) throws Exception {
+        final SqlJson tree = new SqlJson(streamFromFile("sensor-readings"));
+        final StreamingSqlJson stream = SqlJson.streaming(pathToFile("sensor-readings"));
+
+        final JsonResultSet expected;
+        try {
+            expected = tree.queryAsJSONObject(sql);
+        } catch (SQLException e) {
+            assertEquals(e.getMessage(), assertThrows(SQLException.class, () -> stream.queryAsJSONObject(sql)).getMessage());
+            return;
+        }
+        assertResultsEqual(expected, stream.queryAsJSONObject(sql));
+    }
+
+    @Test
+    public void path_can_be_queried_multiple_times() throws Exception {
+        final StreamingSqlJson sqlj = SqlJson.streaming(pathToFile("us-cities"));
+
+        assertEquals(375, sqlj.queryAsJSONObject("select * from \".\" where state = 'Florida'").size());
+        assertEquals(1, sqlj.queryAsJSONObject("select * from \".\" where city = 'Abbeville' and state = 'Louisiana'").size());
+    }
+
+    @Test
+    public void stream_can_be_queried_once() throws Exception {
+        final StreamingSqlJson sqlj = SqlJson.streaming(streamFromFile("simple-scenario"));
+
+        sqlj.queryAsJSONObject("select name from items");
+        assertThrows(IllegalStateException.class, () -> sqlj.queryAsJSONObject("select name from items"));
+    }
+
+    @Test
+    public void skips_siblings_of_table() throws Exception {
+        final String json = "{\"before\": {\"items\": [1, 2]}, \"items\": [{\"name\": \"a\"}, {\"name\": \"b\"}], \"after\": [[{\"name\": \"c\"}]]}";
+        final JsonResultSet results = SqlJson.streaming(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))
+                .queryAsJSONObject("select name from items");
+
+        assertEquals(2, results.size());
+        results.next();
+        assertEquals("a", results.getString("name"));
+        results.next();
+        assertEquals("b", results.getString("name"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "select a, c from items where b = 1",
+            "select a from items where a is null",
+            "select * from items where a is null and b = 1",
+            "select c.d from items where b = 1",
+    })
+    public void null_fields_match_tree_results(String sql) throws Exception {
+        final String json = "{\"items\": [{\"a\": null, \"b\": 1, \"c\": {\"d\": null}}, {\"a\": 2, \"b\": null, \"c\": null}]}";
+        final JsonResultSet expected = new SqlJson(json).queryAsJSONObject(sql);
+
+        assertResultsEqual(expected, SqlJson.streaming(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))).queryAsJSONObject(sql));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "select name from items where status = 'ERROR'",
+            "select name, status from items where status = 'OK' and name != 'b'",
+            "select name, status from items where status != 'OK' and name != 'c'",
+            "select * from items where status is not null",
+    })
+    public void repeated_fields_match_tree_results(String sql) throws Exception {
+        final String json = "{\"items\": [{\"status\": \"ERROR\", \"name\": \"a\", \"status\": \"OK\"},"
+                + " {\"name\": \"b\", \"status\": \"OK\", \"status\": \"ERROR\"}, {\"status\": \"ERROR\", \"name\": \"c\"}]}";
+        final JsonResultSet expected = new SqlJson(json).queryAsJSONObject(sql);
+
+        assertResultsEqual(expected, SqlJson.streaming(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))).queryAsJSONObject(sql));
+    }
+
+    @Test
+    public void repeated_field_accepts_rejected_element() throws Exception {
+        final String json = "{\"items\": [{\"status\": \"ERROR\", \"msg\": \"x\", \"status\": \"OK\"}]}";
+        final JsonResultSet results = SqlJson.streaming(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))
+                .queryAsJSONObject("select msg from items where status = 'OK'");
+
+        assertEquals(1, results.size());
+        results.next();
+        assertEquals("x", results.getString("msg"));
+    }
+
+    @Test
+    public void invalid_table() throws Exception {
+        final StreamingSqlJson sqlj = SqlJson.streaming(pathToFile("simple-scenario"));
+
+        final SQLException ex = assertThrows(SQLException.class, () -> sqlj.queryAsJSONObject("select * from invalid"));
+        assertEquals("Cannot find element 'invalid'", ex.getMessage());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "simple-scenario,invalid",
+            "simple-scenario,items.invalid",
+            "simple-scenario_nested_json,items.body.invalid",
+            "multiple-list-scenario,levels.elements.invalid",
+            "multiple-list-scenario,levels.name.invalid",
+            "us-states,invalid",
+    })
+    public void invalid_table_fails_as_tree(String jsonFile, String table) throws Exception {
+        final String sql = "select * from " + table;
+        final SQLException expected = assertThrows(SQLException.class, () -> new SqlJson(streamFromFile(jsonFile)).queryAsJSONObject(sql));
+
+        final SQLException ex = assertThrows(SQLException.class, () -> SqlJson.streaming(pathToFile(jsonFile)).queryAsJSONObject(sql));
+        assertEquals(expected.getMessage(), ex.getMessage());
+    }
+
+    @Test
+    public void limit_stops_reading_stream() throws Exception {
+        final CountingInputStream input = new CountingInputStream(streamFromFile("us-cities"));
+        final JsonResultSet results = SqlJson.streaming(input).queryAsJSONObject("select city from \".\" limit 3");
+
+        assertEquals(3, results.size());
+        assertTrue(input.closed);
+        assertTrue(input.count < 100_000, "Read " + input.count + " bytes");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "select * from readings",
+            "select id, value from readings where value > 100.0 and sensor in ('s1', 's3')",
+            "select distinct sensor from readings order by sensor",
+            "select id from readings order by value desc, id limit 5",
+            "select id, sensor from readings order by sensor limit 7 offset 3",
+            "select distinct sensor from readings order by sensor desc limit 2",
+            "select id from readings where time between 1600100000 and 1600300000 limit 10 offset 2",
+            "select sensor, count(*), max(value) from readings group by sensor",
+    })
+    public void json_lines_matches_tree_results(String sql) throws Exception {
+        final JsonResultSet expected = new SqlJson(streamFromFile("sensor-readings")).queryAsJSONObject(sql);
+        final String linesSql = sql.replace("from readings", "from \".\"");
+        final Path lines = pathToFile("sensor-readings.jsonl");
+
+        assertResultsEqual(expected, SqlJson.jsonLines(lines).queryAsJSONObject(linesSql));
+        assertResultsEqual(expected, SqlJson.jsonLines(lines, SqlJsonConfigurer.instance().parallelExecution(4, 1)).queryAsJSONObject(linesSql));
+        assertResultsEqual(expected, SqlJson.jsonLines(lines, SqlJsonConfigurer.instance().parallelExecution(1000, 1)).queryAsJSONObject(linesSql));
+    }
+
+    @Test
+    public void json_lines_with_table_in_lines() throws Exception {
+        final Path lines = Files.createTempFile("lines", ".jsonl");
+        try {
+            Files.write(lines, ("{\"items\": [{\"name\": \"a\"}, {\"name\": \"b\"}]}\n"
+                    + "\n"
+                    + "{\"other\": 1}\n"
+                    + "{\"items\": {\"name\": \"c\"}}").getBytes(StandardCharsets.UTF_8));
+
+            for (int parallelism : new int[] {1, 2, 3, 4}) {
+                final JsonResultSet results = SqlJson.jsonLines(lines, SqlJsonConfigurer.instance().parallelExecution(parallelism, 1))
+                        .queryAsJSONObject("select name from items");
+
+                assertEquals(3, results.size());
+                assertEquals("a", results.getRow(0).getColumn(0).asText());
+                assertEquals("b", results.getRow(1).getColumn(0).asText());
+                assertEquals("c", results.getRow(2).getColumn(0).asText());
+            }
+        } finally {
+            Files.delete(lines);
+        }
+    }
+
+    @Test
+    public void json_lines_cursor() throws Exception {
+        final JsonResultSet results = SqlJson.jsonLines(pathToFile("sensor-readings.jsonl"))
+                .queryAsCursor("select id from \".\" where sensor = 's2'");
+
+        assertTrue(results.next());
+        assertEquals(2, results.getInt("id"));
+        results.close();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "select * from readings",
+            "select id, value from readings where value > 100.0 and sensor in ('s1', 's3')",
+            "select distinct sensor from readings",
+            "select id from readings order by value desc, id limit 5",
+            "select id from readings where time between 1600100000 and 1600300000 limit 10 offset 2",
+            "select sensor, count(*), max(value) from readings group by sensor",
+    })
+    public void files_match_tree_results(String sql, @TempDir Path directory) throws Exception {
+        final JsonNode readings = new ObjectMapper().readTree(streamFromFile("sensor-readings")).get("readings");
+        final ObjectMapper mapper = new ObjectMapper();
+        for (int file = 0; file < 5; file++) {
+            final ArrayNode part = mapper.createArrayNode();
+            for (int i = file * 100; i < (file + 1) * 100; i++) {
+                part.add(readings.get(i));
+            }
+            Files.write(directory.resolve("readings-" + file + ".json"), mapper.writeValueAsBytes(mapper.createObjectNode().set("readings", part)));
+        }
+        Files.write(directory.resolve("notes.txt"), "not json".getBytes(StandardCharsets.UTF_8));
+
+        final JsonResultSet expected = new SqlJson(streamFromFile("sensor-readings")).queryAsJSONObject(sql);
+        assertResultsEqual(expected, SqlJson.ofFiles(directory, "*.json").queryAsJSONObject(sql));
+        assertResultsEqual(expected, SqlJson.ofFiles(directory, "*.json", SqlJsonConfigurer.instance().parallelExecution(4, 1)).queryAsJSONObject(sql));
+    }
+
+    @Test
+    public void files_without_matches(@TempDir Path directory) throws Exception {
+        final StreamingSqlJson sqlj = SqlJson.ofFiles(directory, "*.json");
+
+        assertEquals(0, sqlj.queryAsJSONObject("select * from items").size());
+        assertThrows(IOException.class, () -> SqlJson.ofFiles(directory.resolve("missing"), "*.json").queryAsJSONObject("select * from items"));
+    }
+
+    private void assertResultsEqual(JsonResultSet expected, JsonResultSet actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.getColumnNames(), actual.getColumnNames());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getRow(i), actual.getRow(i));
+        }
+    }
+
+    @Test
+    public void stream_find_first_stops_reading() throws Exception {
+        final CountingInputStream input = new CountingInputStream(streamFromFile("us-cities"));
+
+        try (Stream<ResultRow> rows = SqlJson.streaming(input).queryAsStream("select city from \".\" where state = 'Texas'")) {
+            assertEquals("Abilene", rows.findFirst().orElseThrow().getColumn(0).asText());
+            assertTrue(input.count < 100_000, "Read " + input.count + " bytes");
+        }
+        assertTrue(input.closed);
+    }
+
+    @Test
+    public void publisher_matches_tree_results() throws Exception {
+        final String sql = "select city, state from \".\" where state in ('Florida', 'Georgia')";
+        final JsonResultSet expected = new SqlJson(streamFromFile("us-cities")).queryAsJSONObject(sql);
+        final RowSubscriber subscriber = new RowSubscriber(Long.MAX_VALUE);
+
+        SqlJson.streaming(pathToFile("us-cities")).queryAsPublisher(sql).subscribe(subscriber);
+
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertNull(subscriber.error);
+        assertTrue(subscriber.completed);
+        assertEquals(expected.size(), subscriber.rows.size());
+        for (int i = 0; i < expected.size(); i++) {
+            expected.next();
+            assertEquals(expected.getAllColumns(), subscriber.rows.get(i));
+        }
+    }
+
+    @Test
+    public void publisher_emits_only_requested_rows() throws Exception {
+        final CountingInputStream input = new CountingInputStream(streamFromFile("us-cities"));
+        final RowSubscriber subscriber = new RowSubscriber(2);
+
+        SqlJson.streaming(input).queryAsPublisher("select city from \".\"").subscribe(subscriber);
+
+        assertTrue(subscriber.received.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(2, subscriber.rows.size());
+        assertFalse(subscriber.completed);
+        assertTrue(input.count < 100_000, "Read " + input.count + " bytes");
+
+        subscriber.subscription.cancel();
+        for (int i = 0; i < 100 && !input.closed; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(input.closed);
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void publisher_signals_errors() throws Exception {
+        final StreamingSqlJson sqlj = SqlJson.streaming(pathToFile("simple-scenario"));
+
+        final RowSubscriber missingTable = new RowSubscriber(1);
+        sqlj.queryAsPublisher("select * from invalid").subscribe(missingTable);
+        assertTrue(missingTable.terminated.await(10, TimeUnit.SECONDS));
+        assertTrue(missingTable.error instanceof SQLException, String.valueOf(missingTable.error));
+
+        final RowSubscriber invalidRequest = new RowSubscriber(0);
+        sqlj.queryAsPublisher("select * from items").subscribe(invalidRequest);
+        assertTrue(invalidRequest.terminated.await(10, TimeUnit.SECONDS));
+        assertTrue(invalidRequest.error instanceof IllegalArgumentException, String.valueOf(invalidRequest.error));
+
+        assertThrows(SQLException.class, () -> sqlj.queryAsPublisher("select from"));
+    }
+
+    private InputStream streamFromFile(String filename) {
+        return this.getClass().getClassLoader().getResourceAsStream("./test-json/" + filename + ".json");
+    }
+
+    private Path pathToFile(String filename) throws URISyntaxException {
+        final String file = filename.contains(".") ? filename : filename + ".json";
+        return Paths.get(this.getClass().getClassLoader().getResource("./test-json/" + file).toURI());
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private volatile long count;
+        private volatile boolean closed;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int result = super.read();
+            if (result >= 0) {
+                count++;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int result = super.read(b, off, len);
+            if (result > 0) {
+                count += result;
+            }
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+
+    private static class RowSubscriber implements Flow.Subscriber<ResultRow> {
+        private final List<ResultRow> rows = new CopyOnWriteArrayList<>();
+        private final CountDownLatch received;
+        private final CountDownLatch terminated = new CountDownLatch(1);
+        private final long initialRequest;
+        private volatile Flow.Subscription subscription;
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        RowSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+            this.received = new CountDownLatch((int) Math.min(initialRequest, Integer.MAX_VALUE));
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(ResultRow row) {
+            rows.add(row);
+            received.countDown();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            terminated.countDown();
+        }
+    }
+}
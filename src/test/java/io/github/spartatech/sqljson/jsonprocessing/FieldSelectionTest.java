@@ -0,0 +1,50 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests for FieldSelection.
+ */
+public class FieldSelectionTest {
+
+    private static final String ELEMENT = "{\"id\": 1, \"name\": \"a\", \"body\": {\"hair\": {\"color\": \"red\", \"size\": 2}, \"eyes\": \"blue\"},"
+            + " \"elements\": [{\"name\": \"e1\", \"value\": 1}, [{\"name\": \"e2\", \"value\": 2}], 3], \"other\": {\"deep\": [1, 2, {\"x\": 1}]}}";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "select name from items|{\"name\":\"a\"}",
+            "select name as n from items where id > 0 order by n|{\"id\":1,\"name\":\"a\"}",
+            "select body.hair.color from items|{\"body\":{\"hair\":{\"color\":\"red\"}}}",
+            "select body.hair.color, body from items|{\"body\":{\"hair\":{\"color\":\"red\",\"size\":2},\"eyes\":\"blue\"}}",
+            "select id from items where matchAny(elements.name) = 'e2'|{\"id\":1,\"elements\":[{\"name\":\"e1\"},[{\"name\":\"e2\"}],3]}",
+            "select name, count(*) from items group by name having max(id) > 0|{\"id\":1,\"name\":\"a\"}",
+            "select missing from items|{}",
+    })
+    public void reads_only_referenced_fields(String sql, String expected) throws Exception {
+        final FieldSelection selection = QueryPlan.parse(sql).getFieldSelection();
+        try (JsonParser parser = mapper.getFactory().createParser(ELEMENT)) {
+            parser.nextToken();
+
+            assertEquals(mapper.readTree(expected), selection.read(parser, mapper.reader()));
+            assertNull(parser.nextToken());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "select * from items",
+            "select \".\" from items",
+            "select items.* from items",
+    })
+    public void whole_element_selectors(String sql) throws Exception {
+        assertNull(QueryPlan.parse(sql).getFieldSelection());
+    }
+}
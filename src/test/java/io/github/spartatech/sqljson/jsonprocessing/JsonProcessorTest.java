@@ -1,17 +1,32 @@
 package io.github.spartatech.sqljson.jsonprocessing;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.spartatech.sqljson.PreparedQuery;
 import io.github.spartatech.sqljson.SqlJson;
 import io.github.spartatech.sqljson.SqlJsonConfigurer;
 import org.apache.commons.io.IOUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import io.github.spartatech.sqljson.vo.JsonResultSet;
+import io.github.spartatech.sqljson.vo.ResultRow;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -433,6 +448,19 @@ public class JsonProcessorTest {
         assertEquals(0, results.size());
     }
 
+    @Test
+    public void negative_literal() throws Exception {
+        final String json = loadFromFile("simple-scenario");
+        final String sql = "select name from items where age - 40 = -2";
+
+        final SqlJson sqlj = new SqlJson(json);
+        final JsonResultSet results = sqlj.queryAsJSONObject(sql);
+
+        assertEquals(1, results.size());
+        results.next();
+        assertEquals("Daniel", results.getString("name"));
+    }
+
     @Test
     public void multi_list_in_scenario_with_filter_return_columns() throws Exception {
         final String json = loadFromFile("in-list-scenario");
@@ -593,6 +621,50 @@ public class JsonProcessorTest {
         assertEquals(2, results.size());
     }
 
+    @Test
+    public void multi_column_in_match_any_normalized_numbers() throws Exception {
+        final String json = loadFromFile("multiple-list-scenario");
+        final String sql = "select * from levels where matchAny(elements.order) in (1.0, 3.0)";
+
+        final SqlJson sqlj = new SqlJson(json);
+        final JsonResultSet results = sqlj.queryAsJSONObject(sql);
+
+        assertEquals(2, results.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "select name from items where price in (1, 3)",
+            "select name from items where price in (1.0, 3.0)",
+            "select name from items where price in (count)"
+    })
+    public void in_normalizes_numbers(String sql) throws Exception {
+        final String json = "{\"items\": [{\"name\": \"a\", \"price\": 1.0, \"count\": 1}, {\"name\": \"b\", \"price\": 2.5, \"count\": 2}, {\"name\": \"c\", \"price\": 3, \"count\": 3}]}";
+
+        final SqlJson sqlj = new SqlJson(json);
+        final JsonResultSet results = sqlj.queryAsJSONObject(sql);
+
+        assertEquals(2, results.size());
+        results.next();
+        assertEquals("a", results.getString("name"));
+        results.next();
+        assertEquals("c", results.getString("name"));
+    }
+
+    @Test
+    public void large_in_list() throws Exception {
+        final String json = loadFromFile("simple-scenario");
+        final String ids = IntStream.range(1000, 20000).mapToObj(String::valueOf).collect(Collectors.joining(", "));
+        final String sql = "select name from items where age in (" + ids + ", 41)";
+
+        final SqlJson sqlj = new SqlJson(json);
+        final JsonResultSet results = sqlj.queryAsJSONObject(sql);
+
+        assertEquals(1, results.size());
+        results.next();
+        assertEquals("John", results.getString("name"));
+    }
+
     @Test
     public void multi_column_between_match_any_scenario_return_columns() throws Exception {
         final String json = loadFromFile("multiple-list-scenario");
@@ -704,6 +776,645 @@ public class JsonProcessorTest {
         assertThrows(Exception.class, () -> sqlj.queryAsJSONObject(sql));
     }
 
+    @Test
+    public void prepared_query_executed_multiple_times() throws Exception {
+        final String json = loadFromFile("simple-scenario");
+        final String sql = "select name from items where age > 37";
+
+        final SqlJson sqlj = new SqlJson(json, SqlJsonConfigurer.instance().planCache(new QueryPlanCache(10)));
+        final PreparedQuery query = sqlj.prepare(sql);
+
+        for (int i = 0; i < 3; i++) {
+            final JsonResultSet results = query.executeQuery();
+            assertEquals(2, results.size());
+            results.next();
+            assertEquals("Daniel", results.getString("name"));
+        }
+        assertEquals(sql, query.getSql());
+    }
+
+    @Test
+    public void query_plan_cache_used_by_query() throws Exception {
+        final String json = loadFromFile("simple-scenario");
+        final String sql = "select name from items where name = 'John'";
+        final QueryPlanCache cache = new QueryPlanCache(10);
+
+        final SqlJson sqlj = new SqlJson(json, SqlJsonConfigurer.instance().planCache(cache));
+        assertEquals(1, sqlj.queryAsJSONObject(sql).size());
+        assertEquals(1, sqlj.queryAsJSONObject(sql).size());
+
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void cursor_returns_same_rows_as_result_set() throws Exception {
+        final String json = loadFromFile("us-cities");
+        final String sql = "select city from \".\" where state = 'Florida'";
+
+        final SqlJson sqlj = new SqlJson(json);
+        final JsonResultSet expected = sqlj.queryAsJSONObject(sql);
+
+        try (JsonResultSet cursor = sqlj.queryAsCursor(sql)) {
+            assertEquals(expected.getColumnNames(), cursor.getColumnNames());
+            int row = 0;
+            while (cursor.next()) {
+                assertEquals(expected.getRow(row++), cursor.getAllColumns());
+            }
+            assertEquals(375, row);
+        }
+    }
+
+    @Test
+    public void cursor_reading_first_rows_only() throws Exception {
+        final String json = loadFromFile("simple-scenario");
+        final String sql = "select name from items";
+
+        final SqlJson sqlj = new SqlJson(json);
+        try (JsonResultSet cursor = sqlj.queryAsCursor(sql)) {
+            assertTrue(cursor.next());
+            assertEquals("Daniel", cursor.getString("name"));
+            assertThrows(UnsupportedOperationException.class, cursor::size);
+            assertThrows(UnsupportedOperationException.class, cursor::previous);
+        }
+    }
+
+    @Test
+    public void cursor_distinct() throws Exception {
+        final String json = loadFromFile("us-cities");
+        final String sql = "select distinct state from \".\" where state in ('Florida', 'Georgia')";
+
+        final SqlJson sqlj = new SqlJson(json);
+        try (JsonResultSet cursor = sqlj.queryAsCursor(sql)) {
+            assertTrue(cursor.next());
+            assertEquals("Georgia", cursor.getString("state"));
+            assertTrue(cursor.next());
+            assertEquals("Florida", cursor.getString("state"));
+            assertFalse(cursor.next());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "us-cities|select * from \".\"",
+            "us-cities|select city from \".\" where state = 'Florida'",
+            "us-cities|select distinct state from \".\"",
+            "us-cities|select distinct state from \".\" where state in ('Florida', 'Georgia')",
+            "us-cities|select city from \".\" limit 10",
+            "us-cities|select city from \".\" where state = 'Texas' limit 20 offset 5",
+            "us-cities|select distinct state from \".\" limit 7 offset 3",
+            "us-cities|select city, state from \".\" order by state desc, city limit 10 offset 2",
+            "multiple-list-scenario|select name from levels.elements",
+            "simple-scenario|select \".\" from items where age > 37",
+    })
+    public void parallel_execution_matches_sequential(String jsonFile, String sql) throws Exception {
+        final String json = loadFromFile(jsonFile);
+
+        final JsonResultSet expected = new SqlJson(json).queryAsJSONObject(sql);
+        final JsonResultSet results = new SqlJson(json, SqlJsonConfigurer.instance().parallelExecution(4, 2))
+                .queryAsJSONObject(sql);
+
+        assertEquals(expected.size(), results.size());
+        assertEquals(expected.getColumnNames(), results.getColumnNames());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getRow(i), results.getRow(i));
+        }
+    }
+
+    @Test
+    public void parallel_execution_failure() throws Exception {
+        final String json = loadFromFile("us-cities");
+        final String sql = "select city from \".\" where state > 10";
+
+        final SqlJson sqlj = new SqlJson(json, SqlJsonConfigurer.instance().parallelExecution(4, 2));
+        final SQLException ex = assertThrows(SQLException.class, () -> sqlj.queryAsJSONObject(sql));
+        assertTrue(ex.getMessage().startsWith("Invalid types in expression"));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "select name from items order by age desc,John|Daniel",
+            "select name from items order by age,Daniel|John",
+            "select name from items order by birthdate,John|Daniel",
+            "select name from items order by lastModified desc,Daniel|John",
+            "select name from items order by weight desc,John|Daniel",
+            "select name as n from items order by n desc,John|Daniel",
+            "select age name from items order by 1,38|41",
+            "select name from items order by vaccinated,John|Daniel",
+            "select name from items order by age desc limit 1,John",
+            "select name from items order by age + weight,Daniel|John",
+    })
+    public void order_by(String sql, String expected) throws Exception {
+        final String json = loadFromFile("simple-scenario");
+
+        final SqlJson sqlj = new SqlJson(json);
+        final JsonResultSet results = sqlj.queryAsJSONObject(sql);
+
+        final StringBuilder names = new StringBuilder();
+        while (results.next()) {
+            names.append(names.length() == 0 ? "" : "|").append(results.getColumn(0).asText());
+        }
+        assertEquals(expected, names.toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "order by a,null|1|3",
+            "order by a desc,3|1|null",
+            "order by a nulls last,1|3|null",
+            "order by a desc nulls first,null|3|1",
+            "order by b desc,1|null|3",
+    })
+    public void order_by_nulls(String orderBy, String expected) throws Exception {
+        final String json = "{\"items\": [{\"a\": 1, \"b\": \"z\"}, {\"a\": null, \"b\": \"y\"}, {\"a\": 3}]}";
+
+        final SqlJson sqlj = new SqlJson(json);
+        final JsonResultSet results = sqlj.queryAsJSONObject("select a from items " + orderBy);
+
+        final StringBuilder values = new StringBuilder();
+        while (results.next()) {
+            values.append(values.length() == 0 ? "" : "|").append(results.getColumn(0).asText());
+        }
+        assertEquals(expected, values.toString());
+    }
+
+    @Test
+    public void order_by_limit_keeps_top_rows() throws Exception {
+        final String json = loadFromFile("us-cities");
+        final SqlJson sqlj = new SqlJson(json);
+
+        final JsonResultSet all = sqlj.queryAsJSONObject("select city, state from \".\" order by state desc, city");
+        final JsonResultSet top = sqlj.queryAsJSONObject("select city, state from \".\" order by state desc, city limit 25");
+
+        assertEquals(25, top.size());
+        while (top.next()) {
+            assertTrue(all.next());
+            assertEquals(all.getString("city"), top.getString("city"));
+            assertEquals(all.getString("state"), top.getString("state"));
+        }
+        assertEquals("Wyoming", all.getRow(0).getColumn(1).textValue());
+    }
+
+    @Test
+    public void order_by_distinct() throws Exception {
+        final String json = loadFromFile("us-cities");
+        final String sql = "select distinct state from \".\" where state in ('Florida', 'Georgia', 'Alabama') order by state";
+
+        final SqlJson sqlj = new SqlJson(json);
+        final JsonResultSet results = sqlj.queryAsJSONObject(sql);
+
+        assertEquals(3, results.size());
+        results.next();
+        assertEquals("Alabama", results.getString("state"));
+        results.next();
+        assertEquals("Florida", results.getString("state"));
+        results.next();
+        assertEquals("Georgia", results.getString("state"));
+    }
+
+    @Test
+    public void limit_without_order() throws Exception {
+        final String json = loadFromFile("us-cities");
+        final SqlJson sqlj = new SqlJson(json);
+
+        final JsonResultSet results = sqlj.queryAsJSONObject("select city from \".\" limit 5");
+
+        assertEquals(5, results.size());
+        results.next();
+        assertEquals("Abbeville", results.getString("city"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "select city from \".\" limit 5 offset 2|Aberdeen,Aberdeen,Aberdeen,Abilene,Abilene",
+            "select city from \".\" limit 2, 5|Aberdeen,Aberdeen,Aberdeen,Abilene,Abilene",
+            "select city from \".\" offset 2 rows fetch first 2 rows only|Aberdeen,Aberdeen",
+            "select distinct city from \".\" limit 3 offset 1|Aberdeen,Abilene,Abingdon",
+            "select city from \".\" where state = 'Texas' order by city desc limit 2 offset 1|Woodway,Windemere",
+            "select city from \".\" limit 0|",
+            "select city from \".\" order by city limit 2 offset 100000|",
+    })
+    public void limit_offset(String sql, String expected) throws Exception {
+        final String json = loadFromFile("us-cities");
+        final SqlJson sqlj = new SqlJson(json);
+
+        final JsonResultSet results = sqlj.queryAsJSONObject(sql);
+
+        final StringBuilder cities = new StringBuilder();
+        while (results.next()) {
+            cities.append(cities.length() == 0 ? "" : ",").append(results.getString("city"));
+        }
+        assertEquals(expected == null ? "" : expected, cities.toString());
+    }
+
+    @Test
+    public void group_by_count() throws Exception {
+        final String json = loadFromFile("us-cities");
+        final String sql = "select state, count(*) as cities from \".\" group by state order by cities desc, state limit 3";
+
+        final SqlJson sqlj = new SqlJson(json);
+        final JsonResultSet results = sqlj.queryAsJSONObject(sql);
+
+        assertEquals(3, results.size());
+        assertEquals(new LinkedHashSet<>(List.of("state", "cities")), results.getColumnNames());
+        results.next();
+        assertEquals("California", results.getString("state"));
+        assertEquals(555, results.getLong("cities"));
+        results.next();
+        assertEquals("New York", results.getString("state"));
+        assertEquals(554, results.getLong("cities"));
+        results.next();
+        assertEquals("Florida", results.getString("state"));
+        assertEquals(375, results.getLong("cities"));
+    }
+
+    @Test
+    public void group_by_having() throws Exception {
+        final String json = loadFromFile("us-cities");
+        final SqlJson sqlj = new SqlJson(json);
+
+        assertEquals(50, sqlj.queryAsJSONObject("select state from \".\" group by state").size());
+        assertEquals(20, sqlj.queryAsJSONObject("select state from \".\" group by state having count(*) > 100").size());
+        assertEquals(1, sqlj.queryAsJSONObject("select state from \".\" group by state having count(*) > 100 and state = 'Texas'").size());
+    }
+
+    @Test
+    public void aggregates_without_group_by() throws Exception {
+        final String json = loadFromFile("simple-scenario");
+        final String sql = "select count(*), count(distinct vaccinated), sum(age), sum(weight), avg(age), min(age), max(weight), min(birthdate), max(name) from items";
+
+        final SqlJson sqlj = new SqlJson(json);
+        final JsonResultSet results = sqlj.queryAsJSONObject(sql);
+
+        assertEquals(1, results.size());
+        results.next();
+        assertEquals(2, results.getLong("count(*)"));
+        assertEquals(2, results.getLong("count(DISTINCT vaccinated)"));
+        assertEquals(79, results.getLong("sum(age)"));
+        assertTrue(results.getColumn("sum(age)").isIntegralNumber());
+        assertEquals(341.5, results.getDouble("sum(weight)"));
+        assertEquals(39.5, results.getDouble("avg(age)"));
+        assertEquals(38, results.getLong("min(age)"));
+        assertEquals(180, results.getLong("max(weight)"));
+        assertEquals("1978-01-30", results.getString("min(birthdate)"));
+        assertEquals("John", results.getString("max(name)"));
+    }
+
+    @Test
+    public void aggregates_without_rows() throws Exception {
+        final String json = loadFromFile("simple-scenario");
+        final String sql = "select count(*) as total, sum(age) as ages from items where age > 100";
+
+        final SqlJson sqlj = new SqlJson(json);
+        final JsonResultSet results = sqlj.queryAsJSONObject(sql);
+
+        assertEquals(1, results.size());
+        results.next();
+        assertEquals(0, results.getLong("total"));
+        assertTrue(results.getColumn("ages").isNull());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "select name from items where count(*) > 1|Aggregate function count(*) not allowed in where clause",
+            "select sum(name) from items|Function sum(name) expects numeric values, got \"Daniel\"",
+    })
+    public void invalid_aggregates(String sql, String message) throws Exception {
+        final String json = loadFromFile("simple-scenario");
+
+        final SqlJson sqlj = new SqlJson(json);
+        final SQLException ex = assertThrows(SQLException.class, () -> sqlj.queryAsJSONObject(sql));
+
+        assertEquals(message, ex.getMessage());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "us-cities|state|select city from \".\" where state = 'Florida'",
+            "us-cities|state|select city from \".\" where 'Florida' = state",
+            "us-cities|state|select city from \".\" where state = 'Nowhere'",
+            "us-cities|state|select city, state from \".\" where state in ('Florida', 'Texas', 'Nowhere') order by city limit 20",
+            "us-cities|state|select city from \".\" where city != 'Dallas' and state = 'Texas' and city = 'Austin'",
+            "us-cities|state|select city from \".\" where state = 'Florida' or state = 'Texas'",
+            "us-cities|state|select state, count(*) from \".\" where state in ('Florida', 'Texas') group by state",
+            "us-cities|city|select city, state from \".\" where city = 'Springfield' and state in ('Illinois', 'Ohio')",
+            "simple-scenario|age|select name from items where age = 38",
+            "simple-scenario|age|select name from items where age = 38.0",
+            "simple-scenario|age|select name from items where age in (38, 41)",
+            "simple-scenario|birthdate|select name from items where birthdate = '1978-01-30'",
+    })
+    public void index_matches_scan(String jsonFile, String column, String sql) throws Exception {
+        final String json = loadFromFile(jsonFile);
+        final String table = jsonFile.equals("us-cities") ? "." : "items";
+
+        final JsonResultSet expected = new SqlJson(json).queryAsJSONObject(sql);
+        final SqlJson indexed = new SqlJson(json, SqlJsonConfigurer.instance().parallelExecution(4, 2));
+        indexed.createIndex(table, column);
+        final JsonResultSet results = indexed.queryAsJSONObject(sql);
+
+        assertEquals(expected.size(), results.size());
+        assertEquals(expected.getColumnNames(), results.getColumnNames());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getRow(i), results.getRow(i));
+        }
+    }
+
+    @Test
+    public void index_reads_only_matching_elements() throws Exception {
+        final String json = loadFromFile("simple-scenario");
+        // comparing John's weight (180) with a decimal fails, but only Daniel is read through the index
+        final String sql = "select name from items where weight > 100.0 and name = 'Daniel'";
+
+        final SqlJson sqlj = new SqlJson(json);
+        assertThrows(SQLException.class, () -> sqlj.queryAsJSONObject(sql));
+
+        sqlj.createIndex("items", "name");
+        final JsonResultSet results = sqlj.queryAsJSONObject(sql);
+        assertEquals(1, results.size());
+        assertEquals("Daniel", results.getRow(0).getColumn(0).asText());
+    }
+
+    @Test
+    public void index_in_list_of_other_type_fails_as_scan() throws Exception {
+        final SqlJson sqlj = new SqlJson(loadFromFile("simple-scenario"));
+        sqlj.createIndex("items", "age");
+
+        final SQLException ex = assertThrows(SQLException.class,
+                () -> sqlj.queryAsJSONObject("select name from items where age in ('38', '41')"));
+        assertEquals("In list mismatch: Long, String", ex.getMessage());
+    }
+
+    @Test
+    public void index_on_invalid_table() throws Exception {
+        final SqlJson sqlj = new SqlJson(loadFromFile("simple-scenario"));
+
+        final SQLException ex = assertThrows(SQLException.class, () -> sqlj.createIndex("invalid", "name"));
+        assertEquals("Cannot find element 'invalid'", ex.getMessage());
+    }
+
+    @Test
+    public void index_created_while_querying() throws Exception {
+        final SqlJson sqlj = new SqlJson(loadFromFile("us-cities"));
+        final PreparedQuery query = sqlj.prepare("select city from \".\" where state = 'Texas'");
+
+        final List<Integer> sizes = IntStream.range(0, 64).parallel()
+                .mapToObj(i -> {
+                    try {
+                        if (i % 8 == 0) {
+                            sqlj.createIndex(".", "state");
+                        }
+                        return query.executeQuery().size();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .collect(Collectors.toList());
+
+        assertTrue(sizes.stream().allMatch(size -> size == 291), sizes.toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "select id from readings where time between 1600003000 and 1600006000",
+            "select id from readings where time between 1600003000.5 and 1600006000.5",
+            "select id from readings where time > 1600014000",
+            "select id from readings where time >= 1600003000 and time < 1600004000",
+            "select id from readings where 1600014000 <= time",
+            "select id from readings where time = 1600000600",
+            "select id from readings where time between 1600006000 and 1600003000",
+            "select id from readings where value between 10 and 20",
+            "select id from readings where value < 5.5 and sensor = 's1'",
+            "select id, time from readings order by time",
+            "select id, time from readings order by time desc limit 10",
+            "select id, time from readings order by time desc limit 10 offset 15",
+            "select id, time from readings where time between 1600003000 and 1600006000 order by time desc",
+            "select id, time from readings where sensor = 's2' order by time limit 7",
+            "select id, value from readings where time > 1600010000 order by value desc limit 5",
+            "select id as time, value from readings order by time limit 5",
+            "select distinct time from readings order by time desc limit 5",
+            "select sensor, count(*) from readings where time < 1600003000 group by sensor order by sensor",
+    })
+    public void sorted_index_matches_scan(String sql) throws Exception {
+        final String json = loadFromFile("sensor-readings");
+
+        final JsonResultSet expected = new SqlJson(json).queryAsJSONObject(sql);
+        final SqlJson indexed = new SqlJson(json, SqlJsonConfigurer.instance().parallelExecution(4, 2));
+        indexed.createSortedIndex("readings", "time");
+        indexed.createSortedIndex("readings", "value");
+        final JsonResultSet results = indexed.queryAsJSONObject(sql);
+        final JsonResultSet cursor = indexed.queryAsCursor(sql);
+
+        assertEquals(expected.size(), results.size());
+        assertEquals(expected.getColumnNames(), results.getColumnNames());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getRow(i), results.getRow(i));
+            assertTrue(cursor.next());
+            assertEquals(expected.getRow(i), cursor.getAllColumns());
+        }
+        assertFalse(cursor.next());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "select id from items order by v",
+            "select id from items order by v desc",
+            "select id from items where v between -2 and 1 order by v",
+            "select id from items order by n",
+            "select id from items order by n desc limit 4",
+            "select id from items where n < 0",
+    })
+    public void sorted_index_orders_negative_and_repeated_keys(String sql) throws Exception {
+        final String json = "{\"items\": [{\"id\": 1, \"v\": 2.5, \"n\": 5}, {\"id\": 2, \"v\": -1.5, \"n\": -3},"
+                + " {\"id\": 3, \"v\": 0.0, \"n\": 0}, {\"id\": 4, \"v\": -1.5, \"n\": -3}, {\"id\": 5, \"v\": -0.0, \"n\": 5},"
+                + " {\"id\": 6, \"v\": 2.5, \"n\": -9223372036854775808}, {\"id\": 7, \"v\": -10.25, \"n\": 9223372036854775807}]}";
+
+        final JsonResultSet expected = new SqlJson(json).queryAsJSONObject(sql);
+        final SqlJson indexed = new SqlJson(json);
+        indexed.createSortedIndex("items", "v");
+        indexed.createSortedIndex("items", "n");
+        final JsonResultSet results = indexed.queryAsJSONObject(sql);
+
+        assertEquals(expected.size(), results.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getRow(i), results.getRow(i));
+        }
+    }
+
+    @Test
+    public void sorted_index_comparison_of_other_type_fails_as_scan() throws Exception {
+        final SqlJson sqlj = new SqlJson(loadFromFile("sensor-readings"));
+        sqlj.createSortedIndex("readings", "time");
+
+        final SQLException ex = assertThrows(SQLException.class,
+                () -> sqlj.queryAsJSONObject("select id from readings where time > 1600014000.5"));
+        assertTrue(ex.getMessage().startsWith("Invalid types in expression"));
+    }
+
+    @Test
+    public void sorted_index_on_text_column() throws Exception {
+        final SqlJson sqlj = new SqlJson(loadFromFile("sensor-readings"));
+
+        final SQLException ex = assertThrows(SQLException.class, () -> sqlj.createSortedIndex("readings", "sensor"));
+        assertEquals("Sorted index on sensor requires numeric values, got \"s0\"", ex.getMessage());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "sensor-readings|select id from readings where time between 1600003000 and 1600006000",
+            "sensor-readings|select id from readings where time between 1600003000.5 and 1600006000.5",
+            "sensor-readings|select id from readings where time >= 1600003000 and not (sensor = 's1' or value < 50)",
+            "sensor-readings|select id from readings where 50.5 = value or sensor in ('s3', 's4') and time > 1600010000",
+            "sensor-readings|select id from readings where id in (1, 2, 3, 400) and value != 13.5",
+            "sensor-readings|select id from readings where value in (0.5, 13.5, 99.5)",
+            "sensor-readings|select id from readings where value between 10 and 20 order by time desc limit 5",
+            "sensor-readings|select sensor, count(*), avg(value) from readings where time < 1600003000 group by sensor",
+            "sensor-readings|select id from readings where time > 1600014000.5",
+            "sensor-readings|select id from readings where sensor > 10",
+            "sensor-readings|select id from readings where sensor = 's1' and time > 'x'",
+            "us-cities|select city from \".\" where state = 'Florida' and city != 'Miami'",
+            "us-cities|select city from \".\" where state in ('Texas', 'Ohio') or city = 'Springfield'",
+            "simple-scenario|select name from items where weight > 170",
+            "simple-scenario|select name from items where weight between 150 and 200",
+            "simple-scenario|select name from items where birthdate > '1980-01-01'",
+            "simple-scenario|select name from items where birthdate = '1982-11-30'",
+            "simple-scenario|select name from items where vaccinated = 'true'",
+            "simple-scenario|select name from items where age in ('38')",
+            "missing-element-scenario|select name from items where age = 41",
+            "missing-element-scenario|select name from items where age > 40",
+            "missing-element-scenario|select name from items where age is null",
+            "missing-element-scenario|select name from items where departments = 'IT'",
+            "missing-element-scenario|select name from items where matchAny(departments) = 'IT'",
+    })
+    public void columnar_storage_matches_scan(String jsonFile, String sql) throws Exception {
+        final String json = loadFromFile(jsonFile);
+        final SqlJson scan = new SqlJson(json);
+        final SqlJson columnar = new SqlJson(json, SqlJsonConfigurer.instance().columnarStorage());
+
+        final JsonResultSet expected;
+        try {
+            expected = scan.queryAsJSONObject(sql);
+        } catch (SQLException e) {
+            final SQLException ex = assertThrows(SQLException.class, () -> columnar.queryAsJSONObject(sql));
+            assertEquals(e.getMessage(), ex.getMessage());
+            return;
+        }
+        // second execution reuses the column vectors
+        for (int execution = 0; execution < 2; execution++) {
+            final JsonResultSet results = columnar.queryAsJSONObject(sql);
+            assertEquals(expected.size(), results.size());
+            assertEquals(expected.getColumnNames(), results.getColumnNames());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.getRow(i), results.getRow(i));
+            }
+        }
+    }
+
+    @Test
+    public void columnar_storage_with_indexes() throws Exception {
+        final String json = loadFromFile("sensor-readings");
+        final String sql = "select id, time from readings where time between 1600003000 and 1600006000 and sensor = 's1' order by time desc";
+        final JsonResultSet expected = new SqlJson(json).queryAsJSONObject(sql);
+
+        final SqlJson sqlj = new SqlJson(json, SqlJsonConfigurer.instance().columnarStorage());
+        sqlj.createSortedIndex("readings", "time");
+        final JsonResultSet results = sqlj.queryAsJSONObject(sql);
+
+        assertTrue(expected.size() > 0);
+        assertEquals(expected.size(), results.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getRow(i), results.getRow(i));
+        }
+    }
+
+    @Test
+    public void parsed_node_and_byte_slice_inputs() throws Exception {
+        final String json = loadFromFile("us-cities");
+        final String sql = "select city from \".\" where state = 'Florida' order by city limit 20";
+        final JsonResultSet expected = new SqlJson(json).queryAsJSONObject(sql);
+
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        final byte[] padded = new byte[bytes.length + 20];
+        Arrays.fill(padded, (byte) '#');
+        System.arraycopy(bytes, 0, padded, 10, bytes.length);
+        final ObjectMapper mapper = new ObjectMapper();
+
+        for (SqlJson sqlj : List.of(
+                new SqlJson(mapper.readTree(json)),
+                new SqlJson(padded, 10, bytes.length),
+                new SqlJson(json, SqlJsonConfigurer.instance().reader(mapper.reader())))) {
+            final JsonResultSet results = sqlj.queryAsJSONObject(sql);
+
+            assertEquals(expected.size(), results.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.getRow(i), results.getRow(i));
+            }
+        }
+    }
+
+    @Test
+    public void string_input_keeps_non_ascii_characters() throws Exception {
+        final SqlJson sqlj = new SqlJson("{\"items\": [{\"name\": \"Jos\u00e9\"}, {\"name\": \"\u00c5sa\"}]}");
+
+        final JsonResultSet results = sqlj.queryAsJSONObject("select name from items where name = '\u00c5sa'");
+
+        assertEquals(1, results.size());
+        assertEquals("\u00c5sa", results.getRow(0).getColumn(0).asText());
+    }
+
+    @Test
+    public void reader_configures_parsing() throws Exception {
+        final String json = "{\"items\": [{\"name\": \"a\", /* comment */ \"age\": 1}]}";
+        final ObjectMapper mapper = new ObjectMapper().enable(JsonParser.Feature.ALLOW_COMMENTS);
+
+        assertThrows(IOException.class, () -> new SqlJson(json));
+        assertEquals(1, new SqlJson(json, SqlJsonConfigurer.instance().reader(mapper.reader()))
+                .queryAsJSONObject("select name from items where age = 1").size());
+        assertEquals(1, SqlJson.streaming(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), SqlJsonConfigurer.instance().reader(mapper.reader()))
+                .queryAsJSONObject("select name from items where age = 1").size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "select city, state from \".\" where state in ('Florida', 'Georgia')",
+            "select city from \".\" where city != 'Springfield'",
+            "select * from \".\" where state = 'Texas'",
+            "select distinct state from \".\" where city = 'Springfield'",
+            "select city from \".\" where state = 'Ohio' order by city desc limit 5 offset 2",
+            "select state, count(*) from \".\" group by state having count(*) > 200",
+    })
+    public void stream_matches_query(String sql) throws Exception {
+        final SqlJson sqlj = new SqlJson(loadFromFile("us-cities"));
+        final JsonResultSet expected = sqlj.queryAsJSONObject(sql);
+        final List<ResultRow> expectedRows = new ArrayList<>();
+        while (expected.next()) {
+            expectedRows.add(expected.getAllColumns());
+        }
+
+        try (Stream<ResultRow> rows = sqlj.queryAsStream(sql)) {
+            assertEquals(expectedRows, rows.collect(Collectors.toList()));
+        }
+        try (Stream<ResultRow> rows = sqlj.queryAsStream(sql)) {
+            assertEquals(expectedRows, rows.parallel().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void stream_splits_table() throws Exception {
+        final SqlJson sqlj = new SqlJson(loadFromFile("us-cities"));
+        final long elements = sqlj.queryAsJSONObject("select count(*) from \".\"").getRow(0).getColumn(0).asLong();
+
+        try (Stream<ResultRow> rows = sqlj.queryAsStream("select city from \".\" where state = 'Florida'")) {
+            final Spliterator<ResultRow> spliterator = rows.spliterator();
+            assertEquals(elements, spliterator.estimateSize());
+            final Spliterator<ResultRow> prefix = spliterator.trySplit();
+            assertNotNull(prefix);
+            assertEquals(elements, prefix.estimateSize() + spliterator.estimateSize());
+        }
+        try (Stream<ResultRow> rows = sqlj.queryAsStream("select city from \".\" order by city")) {
+            assertEquals(Long.MAX_VALUE, rows.spliterator().estimateSize());
+        }
+    }
+
     /**
      * Loads json for test from given file.
      *
@@ -0,0 +1,56 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLSyntaxErrorException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for QueryPlanCache.
+ */
+public class QueryPlanCacheTest {
+
+    @Test
+    public void same_query_is_parsed_once() throws Exception {
+        final QueryPlanCache cache = new QueryPlanCache(2);
+
+        final QueryPlan first = cache.get("select name from items");
+        final QueryPlan second = cache.get("select name from items");
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void least_recently_used_is_evicted() throws Exception {
+        final QueryPlanCache cache = new QueryPlanCache(2);
+
+        final QueryPlan a = cache.get("select a from items");
+        cache.get("select b from items");
+        cache.get("select a from items");
+        cache.get("select c from items");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(a, cache.get("select a from items"));
+        cache.get("select b from items");
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void invalid_query_is_not_cached() {
+        final QueryPlanCache cache = new QueryPlanCache(2);
+
+        assertThrows(SQLSyntaxErrorException.class, () -> cache.get("select from where"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void invalid_size() {
+        assertThrows(IllegalArgumentException.class, () -> new QueryPlanCache(0));
+    }
+}
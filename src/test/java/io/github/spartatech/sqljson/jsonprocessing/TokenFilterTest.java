@@ -0,0 +1,109 @@
+package io.github.spartatech.sqljson.jsonprocessing;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for TokenFilter.
+ */
+public class TokenFilterTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void rejects_on_first_false_condition() throws Exception {
+        final TokenFilter.Evaluation evaluation = evaluation("select * from t where status = 'ERROR' and time > 10");
+
+        evaluation.reset();
+        assertTrue(evaluation.rejects("status", evaluation.valueOf("status", new TextNode("OK"))));
+
+        evaluation.reset();
+        assertFalse(evaluation.rejects("status", evaluation.valueOf("status", new TextNode("ERROR"))));
+        assertTrue(evaluation.rejects("time", evaluation.valueOf("time", new IntNode(5))));
+    }
+
+    @Test
+    public void rejects_only_after_previous_conditions_are_true() throws Exception {
+        final TokenFilter.Evaluation evaluation = evaluation("select * from t where status = 'ERROR' and time > 10");
+
+        evaluation.reset();
+        assertFalse(evaluation.rejects("time", evaluation.valueOf("time", new IntNode(5))));
+        assertFalse(evaluation.evaluates("other"));
+        assertTrue(evaluation.rejects("status", evaluation.valueOf("status", new TextNode("ERROR"))));
+    }
+
+    @Test
+    public void does_not_reject_after_failing_condition() throws Exception {
+        final TokenFilter.Evaluation evaluation = evaluation("select * from t where time > 10 and status = 'ERROR'");
+
+        evaluation.reset();
+        assertFalse(evaluation.rejects("time", evaluation.valueOf("time", new DoubleNode(5.5))));
+        assertFalse(evaluation.rejects("status", evaluation.valueOf("status", new TextNode("OK"))));
+    }
+
+    @Test
+    public void conditions_after_other_filters_are_not_evaluated() throws Exception {
+        assertNull(tokenFilter("select * from t where matchAny(items.name) = 'a' and status = 'ERROR'"));
+        assertNull(tokenFilter("select * from t where status = 'ERROR' or time > 10"));
+        assertNull(tokenFilter("select * from t where body.status = 'ERROR'"));
+        assertNull(tokenFilter("select * from t"));
+
+        final TokenFilter.Evaluation evaluation = evaluation("select * from t where status = 'ERROR' and time + 1 > 10 and id = 1");
+        evaluation.reset();
+        assertFalse(evaluation.rejects("status", evaluation.valueOf("status", new TextNode("ERROR"))));
+        assertFalse(evaluation.evaluates("id"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\"ERROR\"", "\"say \\\"hi\\\"\"", "\"2021-01-30\"", "\"12:30:00\"", "12", "-9223372036854775808",
+            "12.5", "1e3", "true", "false", "null"})
+    public void token_values_match_node_values(String json) throws Exception {
+        final TokenFilter.Evaluation evaluation = evaluation("select * from t where value = 1");
+        try (JsonParser parser = MAPPER.createParser(json)) {
+            parser.nextToken();
+            assertEquals(evaluation.valueOf("value", MAPPER.readTree(json)), evaluation.valueOf("value", parser));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[1, 2]", "{\"a\": 1}", "12345678901234567890"})
+    public void containers_and_big_numbers_are_read_as_nodes(String json) throws Exception {
+        final TokenFilter.Evaluation evaluation = evaluation("select * from t where value = 1");
+        try (JsonParser parser = MAPPER.createParser(json)) {
+            parser.nextToken();
+            assertNull(evaluation.valueOf("value", parser));
+        }
+    }
+
+    @Test
+    public void repeated_field_takes_last_value() throws Exception {
+        final TokenFilter.Evaluation evaluation = evaluation("select * from t where status = 'ERROR'");
+
+        evaluation.reset();
+        assertFalse(evaluation.rejects("status", evaluation.valueOf("status", new TextNode("ERROR"))));
+        assertTrue(evaluation.rejects("status", evaluation.valueOf("status", new TextNode("OK"))));
+
+        evaluation.reset();
+        assertTrue(evaluation.rejects("status", evaluation.valueOf("status", new TextNode("OK"))));
+        assertFalse(evaluation.rejects("status", evaluation.valueOf("status", new TextNode("ERROR"))));
+    }
+
+    private static TokenFilter tokenFilter(String sql) throws Exception {
+        return QueryPlan.parse(sql).getTokenFilter();
+    }
+
+    private static TokenFilter.Evaluation evaluation(String sql) throws Exception {
+        return tokenFilter(sql).evaluation(MAPPER.getDeserializationConfig());
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.spartatech.sqljson.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.spartatech.sqljson.exception.ExceptionWrapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnPathTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void test_segments() {
+        final ColumnPath path = ColumnPath.of("a.b.c");
+        assertEquals(3, path.length());
+        assertEquals("a", path.segment(0));
+        assertEquals("c", path.segment(2));
+        assertEquals("a.b.c", path.getExpression());
+        assertSame("b", path.segment(1));
+    }
+
+    @Test
+    public void test_table_root() {
+        assertEquals(0, ColumnPath.ofTable(".").length());
+        assertEquals(2, ColumnPath.ofTable("a.b").length());
+    }
+
+    @Test
+    public void test_resolve() throws Exception {
+        final JsonNode json = mapper.readTree("{\"a\": {\"b\": 1}}");
+        assertEquals(1, ColumnPath.of("a.b").resolve(json).asInt());
+        assertTrue(ColumnPath.of("a.c").resolve(json).isMissingNode());
+        assertTrue(ColumnPath.of("x.y.z").resolve(json).isMissingNode());
+    }
+
+    @Test
+    public void test_find_element_through_arrays() throws Exception {
+        final JsonNode json = mapper.readTree("{\"a\": [{\"b\": {\"c\": 1}}, {\"b\": {\"c\": 2}}, {\"x\": 3}]}");
+        assertEquals("[1,2]", JsonUtility.findElementInJson(json, ColumnPath.of("a.b.c"), false).toString());
+
+        final ExceptionWrapper e = assertThrows(ExceptionWrapper.class,
+                () -> JsonUtility.findElementInJson(json, ColumnPath.of("a.d.c"), false));
+        assertEquals("Cannot find element 'd.c' from 'a.d.c'", e.unwrap().getMessage());
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.spartatech.sqljson.util;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+public class GeneralConvertersTest {
+
+    @ParameterizedTest
+    @MethodSource("textParameters")
+    public void test_convert_text(String text, Object expected) {
+        assertEquals(expected, GeneralConverters.convertJsonNodeToNative(JsonNodeFactory.instance.textNode(text)));
+        assertEquals(expected, GeneralConverters.convertTextToNative(text, new ColumnTypeHint()));
+    }
+
+    public static Stream<Arguments> textParameters() {
+        return Stream.of(
+                arguments("NY", "NY"),
+                arguments("New York", "New York"),
+                arguments("12345", "12345"),
+                arguments("12-34", "12-34"),
+                arguments("", ""),
+                arguments("1982-11-30", LocalDate.of(1982, 11, 30)),
+                arguments("1982-11-30T10:15:30", LocalDateTime.of(1982, 11, 30, 10, 15, 30)),
+                arguments("2012-04-23T18:25:43.511Z", Instant.parse("2012-04-23T18:25:43.511Z")),
+                arguments("18:25", LocalTime.of(18, 25)),
+                arguments("18:25:43", LocalTime.of(18, 25, 43)),
+                arguments("1982-13-30", "1982-13-30"),
+                arguments("10:99", "10:99")
+        );
+    }
+
+    @Test
+    public void test_candidates_without_parsing() {
+        assertEquals(0, TemporalType.candidates("Chicago").length);
+        assertEquals(0, TemporalType.candidates("4th street").length);
+        assertArrayEquals(new TemporalType[]{TemporalType.LOCAL_DATE}, TemporalType.candidates("2020-01-01"));
+        assertArrayEquals(new TemporalType[]{TemporalType.LOCAL_TIME}, TemporalType.candidates("10:00:00"));
+        assertArrayEquals(new TemporalType[]{TemporalType.INSTANT, TemporalType.LOCAL_DATE_TIME},
+                TemporalType.candidates("2020-01-01T10:00:00"));
+    }
+
+    @Test
+    public void test_hint_follows_column_values() {
+        final ColumnTypeHint hint = new ColumnTypeHint();
+        assertEquals(LocalDate.of(2020, 1, 1), GeneralConverters.convertTextToNative("2020-01-01", hint));
+        assertEquals(TemporalType.LOCAL_DATE, hint.get());
+        assertEquals(LocalDate.of(2020, 1, 2), GeneralConverters.convertTextToNative("2020-01-02", hint));
+
+        assertEquals(LocalDateTime.of(2020, 1, 1, 10, 0), GeneralConverters.convertTextToNative("2020-01-01T10:00", hint));
+        assertEquals(TemporalType.LOCAL_DATE_TIME, hint.get());
+
+        assertEquals("text", GeneralConverters.convertTextToNative("text", hint));
+        assertNull(hint.get());
+    }
+
+    @Test
+    public void test_escaped_text_keeps_json_representation() {
+        assertEquals("a\\\"b", GeneralConverters.convertJsonNodeToNative(JsonNodeFactory.instance.textNode("a\"b")));
+        assertEquals("null", GeneralConverters.convertJsonNodeToNative(JsonNodeFactory.instance.nullNode()));
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.spartatech.sqljson.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MappedInputStreamTest {
+
+    private Path file;
+    private byte[] content;
+
+    @BeforeEach
+    public void createFile() throws IOException {
+        content = new byte[1000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        file = Files.createTempFile("mapped", ".json");
+        Files.write(file, content);
+    }
+
+    @AfterEach
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 7, 512, 1000, 1 << 30})
+    public void reads_whole_file_across_segments(long segmentSize) throws IOException {
+        try (InputStream input = open(0, content.length, segmentSize)) {
+            assertArrayEquals(content, readAll(input));
+        }
+    }
+
+    @Test
+    public void reads_range() throws IOException {
+        try (InputStream input = MappedInputStream.open(file, 100, 300)) {
+            assertArrayEquals(Arrays.copyOfRange(content, 100, 300), readAll(input));
+        }
+    }
+
+    @Test
+    public void reads_byte_by_byte() throws IOException {
+        try (InputStream input = open(0, content.length, 7)) {
+            for (byte expected : content) {
+                assertEquals(expected & 0xff, input.read());
+            }
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    public void skips_across_segments() throws IOException {
+        try (InputStream input = open(0, content.length, 7)) {
+            assertEquals(content[0] & 0xff, input.read());
+            assertEquals(3, input.skip(3));
+            assertEquals(content[4] & 0xff, input.read());
+            assertEquals(500, input.skip(500));
+            assertEquals(content[505] & 0xff, input.read());
+            assertEquals(494, input.skip(1000));
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    public void empty_file() throws IOException {
+        Files.write(file, new byte[0]);
+        try (InputStream input = MappedInputStream.open(file)) {
+            assertEquals(-1, input.read());
+            assertEquals(-1, input.read(new byte[10], 0, 10));
+        }
+    }
+
+    private InputStream open(long start, long end, long segmentSize) throws IOException {
+        return new MappedInputStream(FileChannel.open(file, StandardOpenOption.READ), start, end, segmentSize);
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[64];
+        int read;
+        while ((read = input.read(buffer, 0, buffer.length)) >= 0) {
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+}
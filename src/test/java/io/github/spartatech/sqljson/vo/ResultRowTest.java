@@ -0,0 +1,46 @@
+package io.github.spartatech.sqljson.vo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultRowTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final JsonNodeFactory factory = JsonNodeFactory.instance;
+
+    @Test
+    public void test_integral_numbers_equal_whatever_node_type() {
+        final ResultRow intRow = new ResultRow(List.of(factory.numberNode(1), factory.textNode("a")));
+        final ResultRow longRow = new ResultRow(List.of(factory.numberNode(1L), factory.textNode("a")));
+        assertEquals(intRow, longRow);
+        assertEquals(intRow.hashCode(), longRow.hashCode());
+    }
+
+    @Test
+    public void test_integral_and_floating_numbers_differ() {
+        assertNotEquals(new ResultRow(List.of(factory.numberNode(1))), new ResultRow(List.of(factory.numberNode(1.0))));
+    }
+
+    @Test
+    public void test_nested_objects() throws Exception {
+        final JsonNode left = mapper.readTree("{\"a\": [1, {\"b\": \"x\"}], \"c\": null}");
+        final JsonNode same = mapper.readTree("{\"a\": [1, {\"b\": \"x\"}], \"c\": null}");
+        final JsonNode other = mapper.readTree("{\"a\": [1, {\"b\": \"y\"}], \"c\": null}");
+        assertEquals(new ResultRow(List.of(left)), new ResultRow(List.of(same)));
+        assertEquals(new ResultRow(List.of(left)).hashCode(), new ResultRow(List.of(same)).hashCode());
+        assertNotEquals(new ResultRow(List.of(left)), new ResultRow(List.of(other)));
+    }
+
+    @Test
+    public void test_null_columns() {
+        assertEquals(new ResultRow(Arrays.asList(null, factory.textNode("a"))), new ResultRow(Arrays.asList(null, factory.textNode("a"))));
+        assertNotEquals(new ResultRow(Arrays.asList(null, factory.textNode("a"))), new ResultRow(Arrays.asList(factory.nullNode(), factory.textNode("a"))));
+    }
+}